@@ -140,7 +140,7 @@ public class Game {
         Statistic.set("Camera Position","X : "+String.format("%.1f",camera.getPosition().x)+" | Y : "+String.format("%.1f",camera.getPosition().y)+" | Z : "+String.format("%.1f",camera.getPosition().z));
         Statistic.set("Chunk Position","X : "+getChunkPosition(camera.getPosition()).x+" | Y : "+getChunkPosition(camera.getPosition()).y+" | Z : "+getChunkPosition(camera.getPosition()).z);
 
-        world.update(camera.getPosition());
+        world.update(camera.getPosition(), deltaTime);
     }
 
     public static Vector3i getChunkPosition(Vector3f worldPos) {
@@ -0,0 +1,233 @@
+package com.mineshit.engine.game;
+
+import com.mineshit.engine.utils.CullingMode;
+import com.mineshit.engine.utils.FaceDirection;
+import com.mineshit.game.world.utils.BlockRegistry;
+import com.mineshit.game.world.utils.BlockType;
+import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.TransparencyType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+// Chaque colonne (x, z) est un long : bit y + 1 = voxel présent, avec une couche de voxels voisins autour (34 bits).
+// Les faces visibles sortent de décalages et de AND / NOT au lieu de tester les six voisins de chaque voxel.
+public class BinaryChunkMesher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryChunkMesher.class);
+
+    private static final int PADDED = ChunkMeshScratch.PADDED;
+
+    public static ChunkMeshData buildBuffers(Chunk chunk, Map<FaceDirection, Chunk> neighbors) {
+        return buildBuffers(chunk, neighbors, 0, Chunk.SECTION_COUNT - 1);
+    }
+
+    // Meshe les sections [firstSection, lastSection] : seules ces couches et la couche voisine de chaque côté sont lues
+    public static ChunkMeshData buildBuffers(Chunk chunk, Map<FaceDirection, Chunk> neighbors, int firstSection, int lastSection) {
+        LOGGER.trace("Building binary Mesh");
+
+        ChunkMeshScratch scratch = ChunkMeshScratch.get();
+
+        int yMin = Math.max(0, firstSection * Chunk.SECTION_SIZE - 1);
+        int yMax = Math.min(Chunk.SIZE, (lastSection + 1) * Chunk.SECTION_SIZE + 1);
+
+        short[] row = scratch.row;
+
+        for (int y = yMin; y < yMax; y++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                chunk.getRow(y, z, row, 0);
+
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    short block = row[x];
+                    if (block == 0) continue;
+
+                    setBit(scratch, block, x, y, z);
+                }
+            }
+        }
+
+        addNeighborPadding(scratch, neighbors, yMin, yMax);
+
+        int sliceSize = Chunk.SIZE * Chunk.SIZE;
+
+        for (int section = firstSection; section <= lastSection; section++) {
+            long sectionBits = ((1L << Chunk.SECTION_SIZE) - 1) << (section * Chunk.SECTION_SIZE + 1);
+
+            for (short block = 1; block < BlockRegistry.BLOCKS.length; block++) {
+                if (!scratch.blockPresent[block]) continue;
+
+                BlockType blockType = BlockRegistry.BLOCKS[block];
+                long[] blockMask = scratch.blockMasks[block];
+
+                if (BlockRegistry.isCross(block)) {
+                    putCrossInstances(scratch, blockMask, sectionBits, block);
+                    continue;
+                }
+
+                boolean transparent = BlockRegistry.isTransparent(block);
+                long[] occluders = getOccluders(blockType.getCullingMode(), blockMask, scratch);
+                boolean occludedBySameOrOpaque = blockType.getCullingMode() == CullingMode.CULL_IF_SAME_OR_OPAQUE;
+
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    for (int z = 0; z < Chunk.SIZE; z++) {
+                        int column = columnIndex(x, z);
+                        long bits = blockMask[column] & sectionBits;
+                        if (bits == 0) continue;
+
+                        for (FaceDirection face : FaceDirection.values()) {
+                            long visible = bits & ~getNeighborOccluders(occluders, scratch.opaqueMask, occludedBySameOrOpaque, column, face);
+                            visible = visible >>> 1;
+
+                            while (visible != 0) {
+                                int y = Long.numberOfTrailingZeros(visible);
+                                visible &= visible - 1;
+
+                                if (transparent) {
+                                    scratch.transparent.putFace(ChunkMeshBuilder.getFaceVertices(x, y, z, face), ChunkMeshBuilder.getFaceId(face), block, 1, 1);
+                                } else {
+                                    // Faces visibles par direction, ordonnées par tranche le long de la normale
+                                    scratch.faceMasks[face.ordinal()][sliceIndex(face, x, y, z)] = block;
+                                    scratch.faceUsed[face.ordinal()] = true;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            for (FaceDirection face : FaceDirection.values()) {
+                if (!scratch.faceUsed[face.ordinal()]) continue;
+
+                int[] faceMask = scratch.faceMasks[face.ordinal()];
+                int[] range = ChunkMeshBuilder.getSectionRange(face, section);
+                for (int slice = range[0]; slice < range[1]; slice++) {
+                    ChunkMeshBuilder.appendGreedyQuads(faceMask, slice * sliceSize, slice, range[2], range[3], face, scratch.opaque, scratch.shadow);
+                }
+            }
+
+            scratch.endSection();
+        }
+
+        return scratch.toMeshData(firstSection);
+    }
+
+    private static void putCrossInstances(ChunkMeshScratch scratch, long[] blockMask, long sectionBits, short block) {
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                long bits = blockMask[columnIndex(x, z)] & sectionBits;
+
+                while (bits != 0) {
+                    int y = Long.numberOfTrailingZeros(bits) - 1;
+                    bits &= bits - 1;
+
+                    scratch.putCrossInstance(x + 0.5f, y, z + 0.5f, block);
+                }
+            }
+        }
+    }
+
+    // Seule la couche de voxels collée au chunk est lue chez chaque voisin, limitée aux couches [yMin, yMax)
+    private static void addNeighborPadding(ChunkMeshScratch scratch, Map<FaceDirection, Chunk> neighbors, int yMin, int yMax) {
+        for (Map.Entry<FaceDirection, Chunk> entry : neighbors.entrySet()) {
+            FaceDirection face = entry.getKey();
+            Chunk neighbor = entry.getValue();
+
+            if (face == FaceDirection.BOTTOM && yMin > 0) continue;
+            if (face == FaceDirection.TOP && yMax < Chunk.SIZE) continue;
+
+            boolean vertical = face == FaceDirection.BOTTOM || face == FaceDirection.TOP;
+            int aMin = vertical ? 0 : yMin;
+            int aMax = vertical ? Chunk.SIZE : yMax;
+
+            for (int a = aMin; a < aMax; a++) {
+                for (int b = 0; b < Chunk.SIZE; b++) {
+                    int x, y, z;
+                    switch (face) {
+                        case LEFT -> { x = -1; y = a; z = b; }
+                        case RIGHT -> { x = Chunk.SIZE; y = a; z = b; }
+                        case BOTTOM -> { x = a; y = -1; z = b; }
+                        case TOP -> { x = a; y = Chunk.SIZE; z = b; }
+                        case BACK -> { x = b; y = a; z = -1; }
+                        default -> { x = b; y = a; z = Chunk.SIZE; }
+                    }
+
+                    short block = neighbor.getBlock(
+                            (x + Chunk.SIZE) % Chunk.SIZE,
+                            (y + Chunk.SIZE) % Chunk.SIZE,
+                            (z + Chunk.SIZE) % Chunk.SIZE
+                    );
+                    if (block == 0) continue;
+
+                    setBit(scratch, block, x, y, z);
+                }
+            }
+        }
+    }
+
+    private static void setBit(ChunkMeshScratch scratch, short block, int x, int y, int z) {
+        int column = columnIndex(x, z);
+        long bit = 1L << (y + 1);
+
+        scratch.blockMasks[block][column] |= bit;
+        scratch.blockPresent[block] = true;
+        scratch.nonAirMask[column] |= bit;
+
+        TransparencyType transparencyType = BlockRegistry.BLOCKS[block].getTransparencyType();
+        if (transparencyType == TransparencyType.OPAQUE) {
+            scratch.opaqueMask[column] |= bit;
+            scratch.solidMask[column] |= bit;
+        } else if (transparencyType == TransparencyType.CUTOUT) {
+            scratch.solidMask[column] |= bit;
+        }
+    }
+
+    // Mêmes règles que BlockRegistry.isFaceVisible, exprimées en masques
+    private static long[] getOccluders(CullingMode mode, long[] blockMask, ChunkMeshScratch scratch) {
+        return switch (mode) {
+            case NONE -> null;
+            case ALWAYS_CULL -> scratch.nonAirMask;
+            case CULL_IF_OPAQUE -> scratch.opaqueMask;
+            case CULL_IF_SAME -> blockMask;
+            case CULL_IF_SOLID -> scratch.solidMask;
+            case CULL_IF_SAME_OR_OPAQUE -> blockMask; // complété par opaqueMask dans getNeighborOccluders
+        };
+    }
+
+    // Occulteurs du voisin dans la direction donnée, alignés sur les bits de la colonne courante
+    private static long getNeighborOccluders(long[] occluders, long[] opaqueMask, boolean occludedBySameOrOpaque, int column, FaceDirection face) {
+        if (occluders == null) return 0L;
+
+        int neighborColumn = switch (face) {
+            case LEFT -> column - PADDED;
+            case RIGHT -> column + PADDED;
+            case BACK -> column - 1;
+            case FRONT -> column + 1;
+            case TOP, BOTTOM -> column;
+        };
+
+        long neighbor = occluders[neighborColumn];
+        if (occludedBySameOrOpaque) {
+            neighbor |= opaqueMask[neighborColumn];
+        }
+
+        return switch (face) {
+            case TOP -> neighbor >>> 1;
+            case BOTTOM -> neighbor << 1;
+            default -> neighbor;
+        };
+    }
+
+    private static int columnIndex(int x, int z) {
+        return (x + 1) * PADDED + (z + 1);
+    }
+
+    // Index dans le masque de faces : tranche le long de la normale puis (a, b) comme ChunkMeshBuilder.getGreedyAxes
+    private static int sliceIndex(FaceDirection face, int x, int y, int z) {
+        return switch (face) {
+            case FRONT, BACK -> z * Chunk.SIZE * Chunk.SIZE + x + y * Chunk.SIZE;
+            case LEFT, RIGHT -> x * Chunk.SIZE * Chunk.SIZE + z + y * Chunk.SIZE;
+            case TOP, BOTTOM -> y * Chunk.SIZE * Chunk.SIZE + x + z * Chunk.SIZE;
+        };
+    }
+}
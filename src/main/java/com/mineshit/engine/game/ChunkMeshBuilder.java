@@ -1,258 +1,257 @@
 package com.mineshit.engine.game;
 
 import com.mineshit.engine.utils.FaceDirection;
-import com.mineshit.game.world.utils.BlockType;
+import com.mineshit.game.world.utils.BlockRegistry;
 import com.mineshit.game.world.utils.Chunk;
-import com.mineshit.game.world.utils.MeshType;
-import com.mineshit.game.world.utils.TransparencyType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import java.util.Map;
 
-import static org.lwjgl.system.MemoryUtil.memAllocFloat;
-import static org.lwjgl.system.MemoryUtil.memAllocInt;
-
 public class ChunkMeshBuilder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ChunkMeshBuilder.class);
 
-    private static final float[][] UVS = {
-            {0f, 0f},
-            {1f, 0f},
-            {1f, 1f},
-            {0f, 1f}
-    };
+    public static MeshingMode meshingMode = MeshingMode.BINARY;
+
+    // Après une édition, seules les sections touchées sont remeshées et patchées dans les buffers existants
+    public static boolean incrementalRemesh = true;
 
     public static ChunkMeshData buildBuffers(Chunk chunk, Map<FaceDirection, Chunk> neighbors) {
+        return switch (meshingMode) {
+            case PER_FACE -> buildPerFaceBuffers(chunk, neighbors);
+            case GREEDY -> buildGreedyBuffers(chunk, neighbors);
+            case BINARY -> BinaryChunkMesher.buildBuffers(chunk, neighbors);
+        };
+    }
+
+    // Seul le mesher binaire sait se limiter à quelques sections, les autres modes refont tout le chunk
+    public static ChunkMeshData buildSectionBuffers(Chunk chunk, Map<FaceDirection, Chunk> neighbors, int firstSection, int lastSection) {
+        if (meshingMode == MeshingMode.BINARY) {
+            return BinaryChunkMesher.buildBuffers(chunk, neighbors, firstSection, lastSection);
+        }
+        return buildBuffers(chunk, neighbors);
+    }
+
+    public static ChunkMeshData buildPerFaceBuffers(Chunk chunk, Map<FaceDirection, Chunk> neighbors) {
         LOGGER.trace("Building Mesh");
 
-        int maxFaces = Chunk.SIZE * Chunk.SIZE * Chunk.SIZE * 6;
-        FloatBuffer opaqueVertexBuffer = memAllocFloat(maxFaces * 4 * 7); // 7 floats per vertex now (added faceId)
-        IntBuffer opaqueIndexBuffer = memAllocInt(maxFaces * 6);
+        ChunkMeshScratch scratch = ChunkMeshScratch.get();
 
-        FloatBuffer transparentVertexBuffer = memAllocFloat(maxFaces * 4 * 7); // 7 floats per vertex now (added faceId)
-        IntBuffer transparentIndexBuffer = memAllocInt(maxFaces * 6);
+        for (int y = 0; y < Chunk.SIZE; y++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    short block = chunk.getBlock(x, y, z);
+                    if (block == 0) continue;
 
-        FloatBuffer shadowVertexBuffer = memAllocFloat(maxFaces * 4 * 7); // 7 floats per vertex now (added faceId)
-        IntBuffer shadowIndexBuffer = memAllocInt(maxFaces * 6);
+                    if(BlockRegistry.isCross(block)){
+                        scratch.putCrossInstance(x + 0.5f, y, z + 0.5f, block);
+                    }else{
+                        boolean transparent = BlockRegistry.isTransparent(block);
 
-        FloatBuffer crossInstanceBuffer = memAllocFloat(Chunk.SIZE * Chunk.SIZE * Chunk.SIZE * 4); // position.xyz + texture index
-        int crossInstanceCount = 0;
+                        for (FaceDirection face : FaceDirection.values()) {
+                            if (!BlockRegistry.isFaceVisible(block, getNeighborBlock(chunk, neighbors, x, y, z, face))) continue;
 
-        int opaqueIndexOffset = 0;
-        int opaqueVertexCount = 0;
+                            int[] faceVertices = getFaceVertices(x, y, z, face);
+                            int faceId = getFaceId(face);
 
-        int transparentIndexOffset = 0;
-        int transparentVertexCount = 0;
+                            if (transparent) {
+                                scratch.transparent.putFace(faceVertices, faceId, block, 1, 1);
+                            } else {
+                                scratch.opaque.putFace(faceVertices, faceId, block, 1, 1);
+                                scratch.shadow.putFace(faceVertices, faceId, block, 1, 1);
+                            }
+                        }
+                    }
+                }
+            }
 
-        int shadowIndexOffset = 0;
-        int shadowVertexCount = 0;
+            if ((y + 1) % Chunk.SECTION_SIZE == 0) {
+                scratch.endSection();
+            }
+        }
 
-        for (int x = 0; x < Chunk.SIZE; x++) {
-            for (int y = 0; y < Chunk.SIZE; y++) {
-                for (int z = 0; z < Chunk.SIZE; z++) {
-                    short block = chunk.getBlock(x, y, z);
-                    if (block == 0) continue;
+        return scratch.toMeshData(0);
+    }
 
-                    BlockType blockType = BlockType.fromId(block);
+    // Les faces opaques (et donc l'ombre) sont fusionnées en rectangles, les faces transparentes restent une par bloc
+    public static ChunkMeshData buildGreedyBuffers(Chunk chunk, Map<FaceDirection, Chunk> neighbors) {
+        LOGGER.trace("Building greedy Mesh");
 
-                    if(blockType.getMeshType().equals(MeshType.CROSS)){
-                        crossInstanceBuffer.put(x + 0.5f);
-                        crossInstanceBuffer.put(y);
-                        crossInstanceBuffer.put(z + 0.5f);
-                        crossInstanceBuffer.put(block);
-                        crossInstanceCount++;
-                    }else{
-                        if(blockType.getTransparencyType().equals(TransparencyType.TRANSLUCENT) || blockType.getTransparencyType().equals(TransparencyType.TRANSPARENT)) {
-                            for (FaceDirection face : FaceDirection.values()) {
-                                int nx = x + face.getOffsetX();
-                                int ny = y + face.getOffsetY();
-                                int nz = z + face.getOffsetZ();
-
-                                short neighborBlock = 0;
-
-                                if (chunk.isOutOfBounds(nx, ny, nz)) {
-                                    Chunk neighbor = neighbors.get(face);
-                                    if (neighbor != null) {
-                                        int ox = (nx + Chunk.SIZE) % Chunk.SIZE;
-                                        int oy = (ny + Chunk.SIZE) % Chunk.SIZE;
-                                        int oz = (nz + Chunk.SIZE) % Chunk.SIZE;
-                                        if (neighbor.isInBounds(ox, oy, oz)) {
-                                            neighborBlock = neighbor.getBlock(ox, oy, oz);
-                                        }
-                                    }
-                                } else {
-                                    neighborBlock = chunk.getBlock(nx, ny, nz);
-                                }
-
-                                BlockType neighborBlockType = BlockType.fromId(neighborBlock);
-
-                                if (shouldCullFace(blockType,neighborBlockType)) continue;
-
-                                float[] faceVertices = getFaceVertices(x, y, z, face);
-                                int faceId = getFaceId(face);
-
-                                for (int i = 0; i < 4; i++) {
-                                    transparentVertexBuffer.put(faceVertices[i * 3]);
-                                    transparentVertexBuffer.put(faceVertices[i * 3 + 1]);
-                                    transparentVertexBuffer.put(faceVertices[i * 3 + 2]);
-                                    transparentVertexBuffer.put(UVS[i][0]);
-                                    transparentVertexBuffer.put(UVS[i][1]);
-                                    transparentVertexBuffer.put(block);
-                                    transparentVertexBuffer.put(faceId);
-                                }
-
-                                transparentIndexBuffer.put(transparentIndexOffset);
-                                transparentIndexBuffer.put(transparentIndexOffset + 1);
-                                transparentIndexBuffer.put(transparentIndexOffset + 2);
-                                transparentIndexBuffer.put(transparentIndexOffset + 2);
-                                transparentIndexBuffer.put(transparentIndexOffset + 3);
-                                transparentIndexBuffer.put(transparentIndexOffset);
-                                transparentIndexOffset += 4;
-                                transparentVertexCount += 4;
-
-                                //appendFaceToBuffer(shadowVertexBuffer, shadowIndexBuffer, faceVertices, faceId, block, shadowIndexOffset);
-                                shadowIndexOffset += 4;
-                                shadowVertexCount += 4;
-                            }
+        ChunkMeshScratch scratch = ChunkMeshScratch.get();
 
-                        }else{
+        int[] mask = scratch.sliceMask;
+        int[] pos = new int[3];
+
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            int sectionStart = section * Chunk.SECTION_SIZE;
+            int sectionEnd = sectionStart + Chunk.SECTION_SIZE;
+
+            for (int y = sectionStart; y < sectionEnd; y++) {
+                for (int z = 0; z < Chunk.SIZE; z++) {
+                    for (int x = 0; x < Chunk.SIZE; x++) {
+                        short block = chunk.getBlock(x, y, z);
+                        if (block == 0) continue;
+
+                        if (BlockRegistry.isCross(block)) {
+                            scratch.putCrossInstance(x + 0.5f, y, z + 0.5f, block);
+                        } else if (BlockRegistry.isTransparent(block)) {
                             for (FaceDirection face : FaceDirection.values()) {
-                                int nx = x + face.getOffsetX();
-                                int ny = y + face.getOffsetY();
-                                int nz = z + face.getOffsetZ();
-
-                                short neighborBlock = 0;
-
-                                if (chunk.isOutOfBounds(nx, ny, nz)) {
-                                    Chunk neighbor = neighbors.get(face);
-                                    if (neighbor != null) {
-                                        int ox = (nx + Chunk.SIZE) % Chunk.SIZE;
-                                        int oy = (ny + Chunk.SIZE) % Chunk.SIZE;
-                                        int oz = (nz + Chunk.SIZE) % Chunk.SIZE;
-                                        if (neighbor.isInBounds(ox, oy, oz)) {
-                                            neighborBlock = neighbor.getBlock(ox, oy, oz);
-                                        }
-                                    }
-                                } else {
-                                    neighborBlock = chunk.getBlock(nx, ny, nz);
-                                }
-
-                                BlockType neighborBlockType = BlockType.fromId(neighborBlock);
-
-                                if (shouldCullFace(blockType,neighborBlockType)) continue;
-
-                                float[] faceVertices = getFaceVertices(x, y, z, face);
-                                int faceId = getFaceId(face);
-
-                                for (int i = 0; i < 4; i++) {
-                                    opaqueVertexBuffer.put(faceVertices[i * 3]);
-                                    opaqueVertexBuffer.put(faceVertices[i * 3 + 1]);
-                                    opaqueVertexBuffer.put(faceVertices[i * 3 + 2]);
-                                    opaqueVertexBuffer.put(UVS[i][0]);
-                                    opaqueVertexBuffer.put(UVS[i][1]);
-                                    opaqueVertexBuffer.put(block);
-                                    opaqueVertexBuffer.put(faceId);
-                                }
-
-                                opaqueIndexBuffer.put(opaqueIndexOffset);
-                                opaqueIndexBuffer.put(opaqueIndexOffset + 1);
-                                opaqueIndexBuffer.put(opaqueIndexOffset + 2);
-                                opaqueIndexBuffer.put(opaqueIndexOffset + 2);
-                                opaqueIndexBuffer.put(opaqueIndexOffset + 3);
-                                opaqueIndexBuffer.put(opaqueIndexOffset);
-                                opaqueIndexOffset += 4;
-                                opaqueVertexCount += 4;
-
-                                appendFaceToBuffer(shadowVertexBuffer, shadowIndexBuffer, faceVertices, faceId, block, shadowIndexOffset);
-                                shadowIndexOffset += 4;
-                                shadowVertexCount += 4;
+                                if (!BlockRegistry.isFaceVisible(block, getNeighborBlock(chunk, neighbors, x, y, z, face))) continue;
+
+                                scratch.transparent.putFace(getFaceVertices(x, y, z, face), getFaceId(face), block, 1, 1);
                             }
                         }
                     }
                 }
             }
-        }
 
-        opaqueVertexBuffer.flip();
-        opaqueIndexBuffer.flip();
+            for (FaceDirection face : FaceDirection.values()) {
+                int[] axes = getGreedyAxes(face);
+                int[] range = getSectionRange(face, section);
 
-        transparentVertexBuffer.flip();
-        transparentIndexBuffer.flip();
+                for (int slice = range[0]; slice < range[1]; slice++) {
+                    pos[axes[0]] = slice;
 
-        shadowVertexBuffer.flip();
-        shadowIndexBuffer.flip();
+                    // Masque 2D des faces visibles de la tranche : id du bloc, 0 si pas de face
+                    for (int b = range[2]; b < range[3]; b++) {
+                        for (int a = 0; a < Chunk.SIZE; a++) {
+                            pos[axes[1]] = a;
+                            pos[axes[2]] = b;
 
-        crossInstanceBuffer.flip();
+                            short block = chunk.getBlock(pos[0], pos[1], pos[2]);
+                            int visible = 0;
 
-        return new ChunkMeshData(opaqueVertexBuffer, opaqueIndexBuffer, opaqueVertexCount, transparentVertexBuffer, transparentIndexBuffer, transparentVertexCount, shadowVertexBuffer, shadowIndexBuffer, shadowVertexCount, crossInstanceBuffer, crossInstanceCount);
-    }
+                            if (block != 0 && !BlockRegistry.isCross(block) && !BlockRegistry.isTransparent(block)
+                                    && BlockRegistry.isFaceVisible(block, getNeighborBlock(chunk, neighbors, pos[0], pos[1], pos[2], face))) {
+                                visible = block;
+                            }
 
-    private static void appendFaceToBuffer(
-            FloatBuffer vertexBuffer,
-            IntBuffer indexBuffer,
-            float[] faceVertices,
-            int faceId,
-            short blockId,
-            int vertexOffset
-    ) {
-        for (int i = 0; i < 4; i++) {
-            vertexBuffer.put(faceVertices[i * 3]);      // pos.x
-            vertexBuffer.put(faceVertices[i * 3 + 1]);  // pos.y
-            vertexBuffer.put(faceVertices[i * 3 + 2]);  // pos.z
-            vertexBuffer.put(UVS[i][0]);                // uv.x
-            vertexBuffer.put(UVS[i][1]);                // uv.y
-            vertexBuffer.put(blockId);                  // texture index
-            vertexBuffer.put(faceId);                   // face index
+                            mask[a + b * Chunk.SIZE] = visible;
+                        }
+                    }
+
+                    appendGreedyQuads(mask, 0, slice, range[2], range[3], face, scratch.opaque, scratch.shadow);
+                }
+            }
+
+            scratch.endSection();
         }
 
-        indexBuffer.put(vertexOffset);
-        indexBuffer.put(vertexOffset + 1);
-        indexBuffer.put(vertexOffset + 2);
-        indexBuffer.put(vertexOffset + 2);
-        indexBuffer.put(vertexOffset + 3);
-        indexBuffer.put(vertexOffset);
+        return scratch.toMeshData(0);
     }
 
+    // {première tranche, fin des tranches, premier b, fin des b} d'une section : les tranches TOP / BOTTOM sont des couches en Y,
+    // pour les autres faces Y est l'axe V (b) du masque
+    static int[] getSectionRange(FaceDirection face, int section) {
+        int sectionStart = section * Chunk.SECTION_SIZE;
+        int sectionEnd = sectionStart + Chunk.SECTION_SIZE;
 
-    private static boolean shouldCullFace(BlockType current, BlockType neighbor) {
-        return switch (current.getCullingMode()) {
-            case NONE -> false;
+        return switch (face) {
+            case TOP, BOTTOM -> new int[]{sectionStart, sectionEnd, 0, Chunk.SIZE};
+            default -> new int[]{0, Chunk.SIZE, sectionStart, sectionEnd};
+        };
+    }
 
-            case ALWAYS_CULL -> neighbor != BlockType.AIR;
+    // Fusionne les lignes [bStart, bEnd) du masque d'une tranche (id du bloc par cellule, 0 = pas de face) en rectangles
+    // et les vide. Le flux d'ombre reprend exactement les quads opaques.
+    static void appendGreedyQuads(int[] mask, int maskOffset, int slice, int bStart, int bEnd, FaceDirection face, MeshStream opaque, MeshStream shadow) {
+        int[] axes = getGreedyAxes(face);
+        int faceId = getFaceId(face);
+        int[] pos = new int[3];
+        pos[axes[0]] = slice;
+
+        for (int b = bStart; b < bEnd; b++) {
+            for (int a = 0; a < Chunk.SIZE; ) {
+                int block = mask[maskOffset + a + b * Chunk.SIZE];
+                if (block == 0) {
+                    a++;
+                    continue;
+                }
+
+                int width = 1;
+                while (a + width < Chunk.SIZE && mask[maskOffset + a + width + b * Chunk.SIZE] == block) {
+                    width++;
+                }
 
-            case CULL_IF_OPAQUE -> neighbor != BlockType.AIR
-                    && neighbor.getTransparencyType() == TransparencyType.OPAQUE;
+                int height = 1;
+                expand:
+                while (b + height < bEnd) {
+                    for (int k = 0; k < width; k++) {
+                        if (mask[maskOffset + a + k + (b + height) * Chunk.SIZE] != block) break expand;
+                    }
+                    height++;
+                }
 
-            case CULL_IF_SAME -> neighbor == current;
+                for (int h = 0; h < height; h++) {
+                    for (int k = 0; k < width; k++) {
+                        mask[maskOffset + a + k + (b + h) * Chunk.SIZE] = 0;
+                    }
+                }
 
-            case CULL_IF_SOLID -> neighbor != BlockType.AIR
-                    && (neighbor.getTransparencyType() == TransparencyType.OPAQUE
-                    || neighbor.getTransparencyType() == TransparencyType.CUTOUT);
-            case CULL_IF_SAME_OR_OPAQUE -> (neighbor == current) || (neighbor != BlockType.AIR
-                    && neighbor.getTransparencyType() == TransparencyType.OPAQUE);
-        };
+                pos[axes[1]] = a;
+                pos[axes[2]] = b;
+                int[] size = {1, 1, 1};
+                size[axes[1]] = width;
+                size[axes[2]] = height;
+
+                int[] faceVertices = getFaceVertices(pos[0], pos[1], pos[2], size[0], size[1], size[2], face);
+
+                opaque.putFace(faceVertices, faceId, (short) block, width, height);
+                shadow.putFace(faceVertices, faceId, (short) block, width, height);
+
+                a += width;
+            }
+        }
+    }
+
+    static int[] getFaceVertices(int x, int y, int z, FaceDirection face) {
+        return getFaceVertices(x, y, z, 1, 1, 1, face);
     }
 
-    private static float[] getFaceVertices(int x, int y, int z, FaceDirection face) {
-        float fx = x;
-        float fy = y;
-        float fz = z;
+    // sx, sy, sz : taille du rectangle couvert par la face (1 sur l'axe de la normale)
+    static int[] getFaceVertices(int x, int y, int z, int sx, int sy, int sz, FaceDirection face) {
+        return switch (face) {
+            case FRONT -> new int[]{ x, y, z + sz, x + sx, y, z + sz, x + sx, y + sy, z + sz, x, y + sy, z + sz };
+            case BACK -> new int[]{ x + sx, y, z, x, y, z, x, y + sy, z, x + sx, y + sy, z };
+            case LEFT -> new int[]{ x, y, z, x, y, z + sz, x, y + sy, z + sz, x, y + sy, z };
+            case RIGHT -> new int[]{ x + sx, y, z + sz, x + sx, y, z, x + sx, y + sy, z, x + sx, y + sy, z + sz };
+            case TOP -> new int[]{ x, y + sy, z + sz, x + sx, y + sy, z + sz, x + sx, y + sy, z, x, y + sy, z };
+            case BOTTOM -> new int[]{ x, y, z, x + sx, y, z, x + sx, y, z + sz, x, y, z + sz };
+        };
+    }
 
+    // {axe de la normale, axe U, axe V} avec 0 = x, 1 = y, 2 = z
+    static int[] getGreedyAxes(FaceDirection face) {
         return switch (face) {
-            case FRONT -> new float[]{ fx, fy, fz + 1, fx + 1, fy, fz + 1, fx + 1, fy + 1, fz + 1, fx, fy + 1, fz + 1 };
-            case BACK -> new float[]{ fx + 1, fy, fz, fx, fy, fz, fx, fy + 1, fz, fx + 1, fy + 1, fz };
-            case LEFT -> new float[]{ fx, fy, fz, fx, fy, fz + 1, fx, fy + 1, fz + 1, fx, fy + 1, fz };
-            case RIGHT -> new float[]{ fx + 1, fy, fz + 1, fx + 1, fy, fz, fx + 1, fy + 1, fz, fx + 1, fy + 1, fz + 1 };
-            case TOP -> new float[]{ fx, fy + 1, fz + 1, fx + 1, fy + 1, fz + 1, fx + 1, fy + 1, fz, fx, fy + 1, fz };
-            case BOTTOM -> new float[]{ fx, fy, fz, fx + 1, fy, fz, fx + 1, fy, fz + 1, fx, fy, fz + 1 };
+            case FRONT, BACK -> new int[]{2, 0, 1};
+            case LEFT, RIGHT -> new int[]{0, 2, 1};
+            case TOP, BOTTOM -> new int[]{1, 0, 2};
         };
     }
 
-    private static int getFaceId(FaceDirection face) {
+    private static short getNeighborBlock(Chunk chunk, Map<FaceDirection, Chunk> neighbors, int x, int y, int z, FaceDirection face) {
+        int nx = x + face.getOffsetX();
+        int ny = y + face.getOffsetY();
+        int nz = z + face.getOffsetZ();
+
+        if (chunk.isOutOfBounds(nx, ny, nz)) {
+            Chunk neighbor = neighbors.get(face);
+            if (neighbor != null) {
+                int ox = (nx + Chunk.SIZE) % Chunk.SIZE;
+                int oy = (ny + Chunk.SIZE) % Chunk.SIZE;
+                int oz = (nz + Chunk.SIZE) % Chunk.SIZE;
+                if (neighbor.isInBounds(ox, oy, oz)) {
+                    return neighbor.getBlock(ox, oy, oz);
+                }
+            }
+            return 0;
+        }
+
+        return chunk.getBlock(nx, ny, nz);
+    }
+
+    static int getFaceId(FaceDirection face) {
         return switch (face) {
             case TOP  -> 0;
             case FRONT   -> 1;
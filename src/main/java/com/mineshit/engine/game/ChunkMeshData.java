@@ -1,30 +1,41 @@
 package com.mineshit.engine.game;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.mineshit.game.world.utils.Chunk;
+import org.lwjgl.system.MemoryUtil;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 
 public record ChunkMeshData(
-        FloatBuffer opaqueVertexBuffer,
-        IntBuffer opaqueIndexBuffer,
+        IntBuffer opaqueVertexBuffer,
         int opaqueVertexCount,
 
-        FloatBuffer transparentVertexBuffer,
-        IntBuffer transparentIndexBuffer,
+        IntBuffer transparentVertexBuffer,
         int transparentVertexCount,
 
-        FloatBuffer shadowVertexBuffer,
-        IntBuffer shadowIndexBuffer,
+        IntBuffer shadowVertexBuffer,
         int shadowVertexCount,
 
         FloatBuffer crossInstanceBuffer,
-        int crossInstanceCount
-
+        int crossInstanceCount,
 
+        // Sections de chunk couvertes, à partir de firstSection : sommets (ou instances) par section.
+        // L'ombre reprend les quads opaques et partage leurs comptes
+        int firstSection,
+        int[] opaqueSectionVertexCounts,
+        int[] transparentSectionVertexCounts,
+        int[] crossSectionInstanceCounts
 ) {
 
+    // Ne couvre qu'une partie des sections : à appliquer sur un mesh existant
+    public boolean isPartial() {
+        return opaqueSectionVertexCounts.length < Chunk.SECTION_COUNT;
+    }
+
+    public int getSectionMask() {
+        return ((1 << opaqueSectionVertexCounts.length) - 1) << firstSection;
+    }
+
     public boolean hasOpaque() {
         return opaqueVertexCount > 0;
     }
@@ -40,5 +51,18 @@ public record ChunkMeshData(
     public boolean canBeAdd() {
         return hasOpaque() || hasTransparent();
     }
+
+    // Une fois envoyés au GPU, seuls les buffers de sommets sont libérés : le buffer d'instances cross est gardé
+    public void freeVertexBuffers() {
+        MemoryUtil.memFree(opaqueVertexBuffer);
+        MemoryUtil.memFree(transparentVertexBuffer);
+        MemoryUtil.memFree(shadowVertexBuffer);
+    }
+
+    // Mesh jamais envoyé (chunk vide, résultat périmé)
+    public void free() {
+        freeVertexBuffers();
+        MemoryUtil.memFree(crossInstanceBuffer);
+    }
 }
 
@@ -0,0 +1,107 @@
+package com.mineshit.engine.game;
+
+import com.mineshit.engine.utils.FaceDirection;
+import com.mineshit.game.world.utils.BlockRegistry;
+import com.mineshit.game.world.utils.Chunk;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.system.MemoryUtil.memAllocFloat;
+
+// Mémoire de travail du meshing, une par thread : rien n'est alloué entre deux chunks une fois la taille atteinte
+class ChunkMeshScratch {
+
+    private static final ThreadLocal<ChunkMeshScratch> SCRATCH = ThreadLocal.withInitial(ChunkMeshScratch::new);
+
+    static final int PADDED = Chunk.SIZE + 2;
+
+    final MeshStream opaque = new MeshStream();
+    final MeshStream transparent = new MeshStream();
+    final MeshStream shadow = new MeshStream();
+
+    private final float[] crossInstances = new float[Chunk.TOTAL_BLOCKS * 4]; // position.xyz + texture index
+    private int crossInstanceCount = 0;
+    private final int[] crossSectionEnds = new int[Chunk.SECTION_COUNT];
+    private int sectionCount = 0;
+
+    // Greedy : masque d'une tranche
+    final int[] sliceMask = new int[Chunk.SIZE * Chunk.SIZE];
+
+    // Binaire : une ligne de blocs décodée, masques de colonnes paddées et masques de faces par direction
+    final short[] row = new short[Chunk.SIZE];
+    final long[][] blockMasks = new long[BlockRegistry.COUNT][PADDED * PADDED];
+    final boolean[] blockPresent = new boolean[BlockRegistry.COUNT];
+    final long[] nonAirMask = new long[PADDED * PADDED];
+    final long[] opaqueMask = new long[PADDED * PADDED];
+    final long[] solidMask = new long[PADDED * PADDED];
+    final int[][] faceMasks = new int[FaceDirection.values().length][Chunk.TOTAL_BLOCKS];
+    final boolean[] faceUsed = new boolean[FaceDirection.values().length];
+
+    static ChunkMeshScratch get() {
+        ChunkMeshScratch scratch = SCRATCH.get();
+        scratch.reset();
+        return scratch;
+    }
+
+    void putCrossInstance(float x, float y, float z, short blockId) {
+        int i = crossInstanceCount * 4;
+        crossInstances[i] = x;
+        crossInstances[i + 1] = y;
+        crossInstances[i + 2] = z;
+        crossInstances[i + 3] = blockId;
+        crossInstanceCount++;
+    }
+
+    // Tout ce qui a été émis depuis la section précédente appartient à la section courante
+    void endSection() {
+        crossSectionEnds[sectionCount++] = crossInstanceCount;
+        opaque.endSection();
+        transparent.endSection();
+        shadow.endSection();
+    }
+
+    // Les buffers natifs sont à la taille exacte du contenu et appartiennent à l'appelant
+    ChunkMeshData toMeshData(int firstSection) {
+        FloatBuffer crossInstanceBuffer = memAllocFloat(crossInstanceCount * 4);
+        crossInstanceBuffer.put(crossInstances, 0, crossInstanceCount * 4).flip();
+
+        int[] opaqueSections = opaque.getSectionVertexCounts();
+        int[] crossSections = new int[sectionCount];
+        for (int i = 0; i < crossSections.length; i++) {
+            crossSections[i] = crossSectionEnds[i] - (i == 0 ? 0 : crossSectionEnds[i - 1]);
+        }
+
+        return new ChunkMeshData(
+                opaque.toVertexBuffer(), opaque.getVertexCount(),
+                transparent.toVertexBuffer(), transparent.getVertexCount(),
+                shadow.toVertexBuffer(), shadow.getVertexCount(),
+                crossInstanceBuffer, crossInstanceCount,
+                firstSection, opaqueSections, transparent.getSectionVertexCounts(), crossSections
+        );
+    }
+
+    private void reset() {
+        opaque.reset();
+        transparent.reset();
+        shadow.reset();
+        crossInstanceCount = 0;
+        sectionCount = 0;
+
+        for (int i = 0; i < blockPresent.length; i++) {
+            if (blockPresent[i]) {
+                Arrays.fill(blockMasks[i], 0L);
+                blockPresent[i] = false;
+            }
+        }
+        Arrays.fill(nonAirMask, 0L);
+        Arrays.fill(opaqueMask, 0L);
+        Arrays.fill(solidMask, 0L);
+        for (int i = 0; i < faceUsed.length; i++) {
+            if (faceUsed[i]) {
+                Arrays.fill(faceMasks[i], 0);
+                faceUsed[i] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mineshit.engine.game;
+
+import com.mineshit.game.world.utils.Chunk;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.system.MemoryUtil.memAllocInt;
+
+// Flux de quads réutilisable : grandit à la demande puis est recopié à la taille exacte dans un buffer natif.
+// Pas d'indices : tous les meshes de chunk partagent le QuadIndexBuffer
+public class MeshStream {
+
+    // Sommet compressé sur deux int, décodé dans opaque_pass, transparent_pass et shadow :
+    // [0] pos.x (6 bits) | pos.y (6) | pos.z (6) | uv.x (6) | uv.y (6)    positions et uv de 0 à 32
+    // [1] texture index (16 bits) | face index (3)
+    public static final int VERTEX_SIZE = 2;
+
+    private static final int INITIAL_FACES = 1024;
+
+    private static final int[][] UVS = {
+            {0, 0},
+            {1, 0},
+            {1, 1},
+            {0, 1}
+    };
+
+    private int[] vertices = new int[INITIAL_FACES * 4 * VERTEX_SIZE];
+    private int vertexCount = 0;
+
+    // Nombre de sommets à la fin de chaque section de chunk terminée
+    private final int[] sectionEnds = new int[Chunk.SECTION_COUNT];
+    private int sectionCount = 0;
+
+    public void reset() {
+        vertexCount = 0;
+        sectionCount = 0;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    // uScale / vScale > 1 : la texture se répète une fois par bloc sur un quad fusionné
+    public void putFace(int[] faceVertices, int faceId, short blockId, int uScale, int vScale) {
+        ensureCapacity();
+
+        int v = vertexCount * VERTEX_SIZE;
+        for (int i = 0; i < 4; i++) {
+            vertices[v++] = faceVertices[i * 3]
+                    | faceVertices[i * 3 + 1] << 6
+                    | faceVertices[i * 3 + 2] << 12
+                    | UVS[i][0] * uScale << 18
+                    | UVS[i][1] * vScale << 24;
+            vertices[v++] = (blockId & 0xFFFF) | faceId << 16;
+        }
+
+        vertexCount += 4;
+    }
+
+    public void endSection() {
+        sectionEnds[sectionCount++] = vertexCount;
+    }
+
+    public int[] getSectionVertexCounts() {
+        int[] counts = new int[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            counts[i] = sectionEnds[i] - (i == 0 ? 0 : sectionEnds[i - 1]);
+        }
+        return counts;
+    }
+
+    public IntBuffer toVertexBuffer() {
+        IntBuffer buffer = memAllocInt(vertexCount * VERTEX_SIZE);
+        buffer.put(vertices, 0, vertexCount * VERTEX_SIZE);
+        return buffer.flip();
+    }
+
+    private void ensureCapacity() {
+        if ((vertexCount + 4) * VERTEX_SIZE > vertices.length) {
+            vertices = Arrays.copyOf(vertices, vertices.length * 2);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.mineshit.engine.game;
+
+public enum MeshingMode {
+    PER_FACE,   // Un quad par face visible
+    GREEDY,     // Fusionne les faces coplanaires identiques en rectangles
+    BINARY      // GREEDY avec des faces visibles calculées par masques binaires par colonne
+}
@@ -25,6 +25,7 @@ public class Pipeline {
     private LightingMap lightingMap;
     private SkyboxMap skyboxMap;
     private GBuffer gbuffer;
+    private ChunkMeshScheduler meshScheduler;
 
     //TODO TEMPORARY
     private boolean showInterface = true;
@@ -42,6 +43,9 @@ public class Pipeline {
         this.skyboxMap = new SkyboxMap(window.getWidth(), window.getHeight());
         this.gbuffer = new GBuffer(window.getWidth(), window.getHeight());
 
+        QuadIndexBuffer.init();
+        this.meshScheduler = new ChunkMeshScheduler();
+
         passes.forEach(pass -> pass.init(window));
     }
 
@@ -75,7 +79,7 @@ public class Pipeline {
         world.getInteraction().update(player, input, world, camera);
         updateLightSpaceMatrix(player.getPosition(),world.getClock().getSunDirection());
 
-        ChunkMeshUpdater.update(renderables,world,camera);
+        ChunkMeshUpdater.update(renderables,world,camera,meshScheduler);
 
         RenderContext ctx = new RenderContext(window,world,camera, player, lightSpaceMatrix,renderables.values(),gbuffer, shadowMap,ssaoMap,lightingMap,skyboxMap);
 
@@ -115,7 +119,8 @@ public class Pipeline {
             chunk.cleanup();
         }
 
-        ChunkRenderable.cleanupStatic();
+        meshScheduler.cleanup();
+        QuadIndexBuffer.cleanup();
     }
 
     public void addPass(RenderPass pass) {
@@ -0,0 +1,172 @@
+package com.mineshit.engine.graphics.renderer.utils;
+
+import com.mineshit.engine.game.MeshStream;
+import com.mineshit.engine.utils.Statistic;
+import com.mineshit.game.world.utils.Chunk;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL32.*;
+
+// Mesh de chunk en sommets compressés (voir MeshStream), découpé en sections de Chunk.SECTION_SIZE couches en Y.
+// Chaque section a une réserve dans le VBO : une édition réécrit sa section en place avec glBufferSubData,
+// et le VBO n'est réorganisé (copie GPU des autres sections) que quand une section dépasse sa réserve.
+// Indices partagés (QuadIndexBuffer), une sous-commande de glMultiDrawElementsBaseVertex par section.
+public class ChunkMesh {
+    private static final int QUAD_VERTICES = 4;
+    private static final int QUAD_BYTES = QUAD_VERTICES * MeshStream.VERTEX_SIZE * Integer.BYTES;
+    private static final int MIN_SLACK_QUADS = 16;
+
+    private final int vao;
+    private int vbo;
+
+    private final int[] firstQuad = new int[Chunk.SECTION_COUNT];
+    private final int[] quadCount = new int[Chunk.SECTION_COUNT];
+    private final int[] capacity = new int[Chunk.SECTION_COUNT];
+
+    private final IntBuffer drawCounts = MemoryUtil.memAllocInt(Chunk.SECTION_COUNT);
+    private final IntBuffer drawBaseVertices = MemoryUtil.memAllocInt(Chunk.SECTION_COUNT);
+    private final PointerBuffer drawIndices = MemoryUtil.memCallocPointer(Chunk.SECTION_COUNT);
+
+    public ChunkMesh(IntBuffer packedVertexBuffer, int[] sectionVertexCounts) {
+        vao = glGenVertexArrays();
+
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            quadCount[section] = sectionVertexCounts[section] / QUAD_VERTICES;
+        }
+
+        allocate();
+
+        glBindVertexArray(vao);
+
+        // EBO partagé
+        QuadIndexBuffer.bind();
+        bindVertexBuffer();
+
+        glBindVertexArray(0);
+
+        writeSections(0, packedVertexBuffer, sectionVertexCounts.length);
+    }
+
+    // Remplace les sections [firstSection, firstSection + sectionVertexCounts.length) par le contenu du buffer
+    public void updateSections(int firstSection, IntBuffer packedVertexBuffer, int[] sectionVertexCounts) {
+        int[] newQuadCount = quadCount.clone();
+        boolean fits = true;
+
+        for (int i = 0; i < sectionVertexCounts.length; i++) {
+            int section = firstSection + i;
+            newQuadCount[section] = sectionVertexCounts[i] / QUAD_VERTICES;
+            fits &= newQuadCount[section] <= capacity[section];
+        }
+
+        if (!fits) {
+            relayout(firstSection, sectionVertexCounts.length, newQuadCount);
+        }
+
+        System.arraycopy(newQuadCount, 0, quadCount, 0, quadCount.length);
+        writeSections(firstSection, packedVertexBuffer, sectionVertexCounts.length);
+    }
+
+    public void render() {
+        if (getQuadCount() == 0) return;
+
+        glBindVertexArray(vao);
+        glMultiDrawElementsBaseVertex(GL_TRIANGLES, drawCounts, GL_UNSIGNED_INT, drawIndices, drawBaseVertices);
+        glBindVertexArray(0);
+        Statistic.increment("Drawcalls");
+    }
+
+    public int getQuadCount() {
+        int total = 0;
+        for (int count : quadCount) total += count;
+        return total;
+    }
+
+    public void cleanup() {
+        glDeleteBuffers(vbo);
+        glDeleteVertexArrays(vao);
+
+        MemoryUtil.memFree(drawCounts);
+        MemoryUtil.memFree(drawBaseVertices);
+        MemoryUtil.memFree(drawIndices);
+    }
+
+    // Réserves recalculées à partir de quadCount, nouveau VBO vide
+    private void allocate() {
+        int totalQuads = 0;
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            firstQuad[section] = totalQuads;
+            capacity[section] = quadCount[section] + Math.max(MIN_SLACK_QUADS, quadCount[section] / 4);
+            totalQuads += capacity[section];
+        }
+
+        vbo = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        glBufferData(GL_ARRAY_BUFFER, (long) totalQuads * QUAD_BYTES, GL_DYNAMIC_DRAW);
+    }
+
+    // Les sections hors de [firstSection, firstSection + count) sont recopiées côté GPU depuis l'ancien VBO
+    private void relayout(int firstSection, int count, int[] newQuadCount) {
+        int oldVbo = vbo;
+        int[] oldFirstQuad = firstQuad.clone();
+
+        System.arraycopy(newQuadCount, 0, quadCount, 0, quadCount.length);
+        allocate();
+
+        glBindBuffer(GL_COPY_READ_BUFFER, oldVbo);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, vbo);
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            if (section >= firstSection && section < firstSection + count) continue;
+            if (quadCount[section] == 0) continue;
+
+            glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER,
+                    (long) oldFirstQuad[section] * QUAD_BYTES,
+                    (long) firstQuad[section] * QUAD_BYTES,
+                    (long) quadCount[section] * QUAD_BYTES);
+        }
+        glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+
+        glBindVertexArray(vao);
+        bindVertexBuffer();
+        glBindVertexArray(0);
+
+        glDeleteBuffers(oldVbo);
+    }
+
+    private void writeSections(int firstSection, IntBuffer packedVertexBuffer, int count) {
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+
+        int position = packedVertexBuffer.position();
+        for (int section = firstSection; section < firstSection + count; section++) {
+            int ints = quadCount[section] * QUAD_VERTICES * MeshStream.VERTEX_SIZE;
+            if (ints == 0) continue;
+
+            IntBuffer slice = packedVertexBuffer.slice(position, ints);
+            glBufferSubData(GL_ARRAY_BUFFER, (long) firstQuad[section] * QUAD_BYTES, slice);
+            position += ints;
+        }
+
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        updateDrawCommands();
+    }
+
+    private void bindVertexBuffer() {
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+
+        glEnableVertexAttribArray(0); // aPacked
+        glVertexAttribIPointer(0, 2, GL_UNSIGNED_INT, MeshStream.VERTEX_SIZE * Integer.BYTES, 0);
+    }
+
+    private void updateDrawCommands() {
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            drawCounts.put(section, quadCount[section] * 6);
+            drawBaseVertices.put(section, firstQuad[section] * QUAD_VERTICES);
+        }
+    }
+}
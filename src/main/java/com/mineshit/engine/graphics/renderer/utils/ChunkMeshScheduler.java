@@ -0,0 +1,232 @@
+package com.mineshit.engine.graphics.renderer.utils;
+
+import com.mineshit.engine.game.ChunkMeshBuilder;
+import com.mineshit.engine.game.ChunkMeshData;
+import com.mineshit.engine.graphics.Camera;
+import com.mineshit.engine.utils.FaceDirection;
+import com.mineshit.engine.utils.Statistic;
+import com.mineshit.engine.utils.WorkerThreads;
+import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkRenderable;
+import com.mineshit.game.world.utils.ChunkState;
+import org.joml.FrustumIntersection;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Meshing multi-thread : les chunks visibles et proches passent en premier, un job dont le chunk a été
+// re-sali ou déchargé entre-temps est abandonné, et le thread GL n'envoie qu'un budget de meshes par frame.
+// Les remesh d'édition (DIRTY_NOW) passent devant toute la file et sont envoyés hors budget ; en mode incrémental
+// ils ne refont que les sections touchées, patchées dans les buffers du mesh existant.
+public class ChunkMeshScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkMeshScheduler.class);
+
+    private static final long UPLOAD_BUDGET_NANOS = 2_000_000; // 2 ms par frame
+    private static final float OFFSCREEN_PENALTY = 1_000_000f; // hors frustum : derrière tous les chunks visibles
+    private static final int MAX_MESH_ATTEMPTS = 3;
+
+    private final PriorityBlockingQueue<MeshJob> jobs = new PriorityBlockingQueue<>();
+    private final Queue<MeshResult> results = new ConcurrentLinkedQueue<>();
+    private final Queue<MeshResult> urgentResults = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Vector3i lastCameraChunk = new Vector3i(Integer.MIN_VALUE);
+
+    private volatile boolean running = true;
+
+    public ChunkMeshScheduler() {
+        int workerCount = WorkerThreads.MESHING;
+        LOGGER.info("Starting {} meshing workers", workerCount);
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "chunk-mesher-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    public void submit(ChunkRenderable renderable, Map<FaceDirection, Chunk> neighbors, Camera camera, FrustumIntersection frustum) {
+        enqueue(renderable, neighbors, camera, frustum, false);
+    }
+
+    // L'ancien mesh reste affiché jusqu'à l'arrivée du nouveau
+    public void submitUrgent(ChunkRenderable renderable, Map<FaceDirection, Chunk> neighbors, Camera camera, FrustumIntersection frustum) {
+        enqueue(renderable, neighbors, camera, frustum, true);
+    }
+
+    private void enqueue(ChunkRenderable renderable, Map<FaceDirection, Chunk> neighbors, Camera camera, FrustumIntersection frustum, boolean urgent) {
+        Chunk chunk = renderable.getChunk();
+        chunk.setState(ChunkState.MESHING);
+
+        int sections = urgent && ChunkMeshBuilder.incrementalRemesh ? renderable.requestSections() : 0;
+        int firstSection = -1;
+        int lastSection = -1;
+
+        if (sections != 0) {
+            firstSection = Integer.numberOfTrailingZeros(sections);
+            lastSection = 31 - Integer.numberOfLeadingZeros(sections);
+        } else {
+            renderable.requestFullMesh();
+        }
+
+        int version = renderable.nextMeshVersion();
+        jobs.add(new MeshJob(renderable, version, neighbors, urgent, firstSection, lastSection, getPriority(chunk, camera, frustum), sequence.getAndIncrement()));
+    }
+
+    // Les priorités sont figées à la soumission : on ne les recalcule que quand la caméra change de chunk
+    public void reprioritize(Camera camera, FrustumIntersection frustum) {
+        Vector3f cameraPosition = camera.getPosition();
+        int chunkX = (int) Math.floor(cameraPosition.x / Chunk.SIZE);
+        int chunkY = (int) Math.floor(cameraPosition.y / Chunk.SIZE);
+        int chunkZ = (int) Math.floor(cameraPosition.z / Chunk.SIZE);
+
+        if (lastCameraChunk.equals(chunkX, chunkY, chunkZ)) return;
+        lastCameraChunk.set(chunkX, chunkY, chunkZ);
+
+        List<MeshJob> pending = new ArrayList<>();
+        jobs.drainTo(pending);
+
+        for (MeshJob job : pending) {
+            if (job.isStale()) continue;
+            jobs.add(new MeshJob(job.renderable(), job.version(), job.neighbors(), job.urgent(), job.firstSection(), job.lastSection(), getPriority(job.renderable().getChunk(), camera, frustum), job.sequence()));
+        }
+    }
+
+    // Thread GL : envoie les meshes terminés tant que le budget de la frame n'est pas épuisé
+    public void integrate() {
+        long start = System.nanoTime();
+        int uploaded = 0;
+
+        MeshResult result;
+        while ((result = urgentResults.poll()) != null) {
+            if (apply(result)) uploaded++;
+        }
+
+        while (System.nanoTime() - start < UPLOAD_BUDGET_NANOS && (result = results.poll()) != null) {
+            if (apply(result)) uploaded++;
+        }
+
+        Statistic.set("Mesh Queue", jobs.size());
+        Statistic.set("Mesh Uploads", uploaded);
+    }
+
+    private boolean apply(MeshResult result) {
+        MeshJob job = result.job();
+        ChunkRenderable renderable = job.renderable();
+
+        if (job.isStale()) {
+            if (result.data() != null) result.data().free();
+            return false;
+        }
+
+        Chunk chunk = renderable.getChunk();
+
+        // Meshing en échec (exception loggée par le worker) : quelques essais, puis le chunk garde son mesh
+        // plutôt que d'être remeshé à chaque frame
+        if (result.data() == null) {
+            if (renderable.recordMeshFailure() < MAX_MESH_ATTEMPTS) {
+                chunk.setState(ChunkState.DIRTY);
+            } else {
+                LOGGER.warn("Giving up meshing chunk {} after {} failures", chunk.getPosition(), MAX_MESH_ATTEMPTS);
+                if (chunk.getState() == ChunkState.MESHING) chunk.setState(ChunkState.MESHED);
+            }
+            return false;
+        }
+
+        if (result.data().isPartial() && !renderable.hasMesh()) {
+            result.data().free();
+            chunk.setState(ChunkState.DIRTY);
+            return false;
+        }
+
+        renderable.applyMeshData(result.data());
+
+        if (chunk.getState() == ChunkState.MESHING) {
+            chunk.setState(ChunkState.MESHED);
+        }
+        return true;
+    }
+
+    public void cleanup() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+
+        for (Queue<MeshResult> queue : List.of(urgentResults, results)) {
+            MeshResult result;
+            while ((result = queue.poll()) != null) {
+                if (result.data() != null) result.data().free();
+            }
+        }
+    }
+
+    private void work() {
+        while (running) {
+            MeshJob job;
+            try {
+                job = jobs.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (job.isStale()) continue;
+
+            ChunkMeshData data = null;
+            try {
+                Chunk chunk = job.renderable().getChunk();
+                data = job.isPartial()
+                        ? ChunkMeshBuilder.buildSectionBuffers(chunk, job.neighbors(), job.firstSection(), job.lastSection())
+                        : ChunkMeshBuilder.buildBuffers(chunk, job.neighbors());
+            } catch (Exception e) {
+                LOGGER.warn("Meshing failed for chunk {}", job.renderable().getChunk().getPosition(), e);
+            }
+
+            (job.urgent() ? urgentResults : results).add(new MeshResult(job, data));
+        }
+    }
+
+    private static float getPriority(Chunk chunk, Camera camera, FrustumIntersection frustum) {
+        Vector3f min = chunk.getWorldMin();
+        Vector3f max = chunk.getWorldMax();
+
+        float half = Chunk.SIZE / 2f;
+        float distance = camera.getPosition().distanceSquared(min.x + half, min.y + half, min.z + half);
+
+        boolean visible = frustum.testAab(min.x, min.y, min.z, max.x, max.y, max.z);
+        return visible ? distance : distance + OFFSCREEN_PENALTY;
+    }
+
+    // firstSection / lastSection à -1 : mesh complet
+    private record MeshJob(ChunkRenderable renderable, int version, Map<FaceDirection, Chunk> neighbors, boolean urgent,
+                           int firstSection, int lastSection, float priority, long sequence) implements Comparable<MeshJob> {
+
+        boolean isPartial() {
+            return firstSection >= 0;
+        }
+
+        // Re-sali (nouvelle version soumise) ou déchargé depuis la soumission
+        boolean isStale() {
+            return renderable.getMeshVersion() != version;
+        }
+
+        @Override
+        public int compareTo(MeshJob other) {
+            if (urgent != other.urgent) return urgent ? -1 : 1;
+
+            int byPriority = Float.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private record MeshResult(MeshJob job, ChunkMeshData data) {}
+}
@@ -0,0 +1,42 @@
+package com.mineshit.engine.graphics.renderer.utils;
+
+import com.mineshit.game.world.utils.Chunk;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL15C.*;
+
+// EBO unique partagé par tous les meshes de chunk : 0,1,2,2,3,0 décalé de 4 par quad,
+// dimensionné pour le pire chunk possible (chaque face de chaque bloc visible)
+public class QuadIndexBuffer {
+
+    public static final int MAX_QUADS = Chunk.TOTAL_BLOCKS * 6;
+
+    private static int ebo;
+
+    public static void init() {
+        IntBuffer indices = MemoryUtil.memAllocInt(MAX_QUADS * 6);
+        for (int quad = 0; quad < MAX_QUADS; quad++) {
+            int offset = quad * 4;
+            indices.put(offset).put(offset + 1).put(offset + 2)
+                    .put(offset + 2).put(offset + 3).put(offset);
+        }
+        indices.flip();
+
+        ebo = glGenBuffers();
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+
+        MemoryUtil.memFree(indices);
+    }
+
+    // À appeler avec le VAO du mesh lié : le binding de l'EBO fait partie de l'état du VAO
+    public static void bind() {
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+    }
+
+    public static void cleanup() {
+        glDeleteBuffers(ebo);
+    }
+}
@@ -0,0 +1,10 @@
+package com.mineshit.engine.utils;
+
+// Budget unique de threads de fond : le thread GL et le thread de sauvegarde gardent leur cœur,
+// la génération prend la moitié du reste et le meshing ce qui reste ensuite
+public class WorkerThreads {
+    private static final int BACKGROUND = Math.max(2, Runtime.getRuntime().availableProcessors() - 2);
+
+    public static final int GENERATION = Math.max(1, BACKGROUND / 2);
+    public static final int MESHING = Math.max(1, BACKGROUND - GENERATION);
+}
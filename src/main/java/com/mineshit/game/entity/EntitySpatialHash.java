@@ -0,0 +1,142 @@
+package com.mineshit.game.entity;
+
+import com.mineshit.game.world.utils.Chunk;
+
+import java.util.Arrays;
+
+// Phase large entité-entité : grille uniforme de cellules alignées sur les chunks (CELL_SIZE divise
+// Chunk.SIZE, une cellule n'est jamais à cheval sur deux chunks). Elle est reconstruite à chaque tick par
+// tri par comptage : les index des entités d'une même case sont contigus dans entries. Les cellules sont
+// hachées dans une table de cases en puissance de deux : deux cellules qui partagent une case sont
+// départagées par le test de boîtes. Une entité est rangée par le centre de sa boîte, les requêtes sont
+// donc élargies de la plus grande demi-boîte sur chaque axe.
+public class EntitySpatialHash {
+
+    // De l'ordre de la taille d'une entité : une requête ne lit que quelques cellules peu peuplées
+    private static final int CELL_SIZE = Chunk.SIZE / 8;
+
+    @FunctionalInterface
+    public interface IndexConsumer {
+        void accept(int index);
+    }
+
+    @FunctionalInterface
+    public interface PairConsumer {
+        void accept(int first, int second);
+    }
+
+    private int mask;
+    private int[] bucketStart = new int[1];
+    private int[] entries = new int[0];
+    private int[] bucketOfEntity = new int[0];
+    private int[] fillCursor = new int[0];
+
+    private float maxHalfWidth;
+    private float maxHalfHeight;
+
+    // Cases déjà parcourues par la requête en cours : une case partagée par deux cellules n'est lue qu'une fois.
+    // Partagé entre requêtes : pas de requêtes concurrentes ni imbriquées dans un consumer
+    private int[] visited = new int[64];
+
+    private EntityStore store;
+
+    public void build(EntityStore store) {
+        this.store = store;
+        int count = store.count;
+
+        int buckets = Math.max(16, Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1);
+        mask = buckets - 1;
+        if (bucketStart.length < buckets + 1) bucketStart = new int[buckets + 1];
+        Arrays.fill(bucketStart, 0, buckets + 1, 0);
+        if (entries.length < count) {
+            entries = new int[store.posX.length];
+            bucketOfEntity = new int[store.posX.length];
+        }
+
+        maxHalfWidth = 0;
+        maxHalfHeight = 0;
+
+        for (int i = 0; i < count; i++) {
+            float halfHeight = store.height[i] * 0.5f;
+            int bucket = bucket(cell(store.posX[i]), cell(store.posY[i] + halfHeight), cell(store.posZ[i]));
+            bucketOfEntity[i] = bucket;
+            bucketStart[bucket + 1]++;
+
+            maxHalfWidth = Math.max(maxHalfWidth, store.radius[i]);
+            maxHalfHeight = Math.max(maxHalfHeight, halfHeight);
+        }
+
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+
+        if (fillCursor.length < buckets) fillCursor = new int[buckets];
+        System.arraycopy(bucketStart, 0, fillCursor, 0, buckets);
+        for (int i = 0; i < count; i++) {
+            entries[fillCursor[bucketOfEntity[i]]++] = i;
+        }
+    }
+
+    // Entités dont la boîte chevauche [min, max], à appeler après build
+    public void query(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, IndexConsumer consumer) {
+        int startX = cell(minX - maxHalfWidth), endX = cell(maxX + maxHalfWidth);
+        int startY = cell(minY - maxHalfHeight), endY = cell(maxY + maxHalfHeight);
+        int startZ = cell(minZ - maxHalfWidth), endZ = cell(maxZ + maxHalfWidth);
+
+        int visitedCount = 0;
+
+        for (int cx = startX; cx <= endX; cx++) {
+            for (int cy = startY; cy <= endY; cy++) {
+                for (int cz = startZ; cz <= endZ; cz++) {
+                    int bucket = bucket(cx, cy, cz);
+                    if (contains(visited, visitedCount, bucket)) continue;
+                    if (visitedCount == visited.length) visited = Arrays.copyOf(visited, visitedCount * 2);
+                    visited[visitedCount++] = bucket;
+
+                    for (int e = bucketStart[bucket]; e < bucketStart[bucket + 1]; e++) {
+                        int index = entries[e];
+                        if (overlaps(index, minX, minY, minZ, maxX, maxY, maxZ)) {
+                            consumer.accept(index);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Chaque paire d'entités dont les boîtes se chevauchent, une seule fois (first < second)
+    public void forEachPair(PairConsumer consumer) {
+        for (int i = 0; i < store.count; i++) {
+            int first = i;
+            float r = store.radius[i];
+            query(store.posX[i] - r, store.posY[i], store.posZ[i] - r,
+                    store.posX[i] + r, store.posY[i] + store.height[i], store.posZ[i] + r,
+                    second -> {
+                        if (second > first) consumer.accept(first, second);
+                    });
+        }
+    }
+
+    private boolean overlaps(int index, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float r = store.radius[index];
+        return store.posX[index] + r > minX && store.posX[index] - r < maxX
+                && store.posY[index] + store.height[index] > minY && store.posY[index] < maxY
+                && store.posZ[index] + r > minZ && store.posZ[index] - r < maxZ;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static int cell(float coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), CELL_SIZE);
+    }
+
+    private int bucket(int cx, int cy, int cz) {
+        int h = cx * 0x8da6b343 + cy * 0xd8163841 + cz * 0xcb1ab31f;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,161 @@
+package com.mineshit.game.entity;
+
+import java.util.Arrays;
+
+// Entités en structure de tableaux : positions, vitesses et boîtes dans des tableaux primitifs parallèles,
+// parcourus linéairement par l'intégration, sans objet par entité. Une entité est adressée par son index
+// dense [0, count) pendant un tick ; la suppression échange avec la dernière entité, seul l'id reste stable.
+// Boîte : centre en x/z, pieds en y, demi-largeur radius et hauteur height. Thread principal sauf intégration.
+public class EntityStore {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    int count;
+
+    float[] posX = new float[INITIAL_CAPACITY];
+    float[] posY = new float[INITIAL_CAPACITY];
+    float[] posZ = new float[INITIAL_CAPACITY];
+    float[] velX = new float[INITIAL_CAPACITY];
+    float[] velY = new float[INITIAL_CAPACITY];
+    float[] velZ = new float[INITIAL_CAPACITY];
+    float[] radius = new float[INITIAL_CAPACITY];
+    float[] height = new float[INITIAL_CAPACITY];
+    boolean[] onGround = new boolean[INITIAL_CAPACITY];
+
+    // id -> index (-1 si libre) et index -> id ; les ids libérés sont réutilisés
+    private int[] idByIndex = new int[INITIAL_CAPACITY];
+    private int[] indexById = new int[INITIAL_CAPACITY];
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int nextId;
+
+    public int add(float x, float y, float z, float boxRadius, float boxHeight) {
+        if (count == posX.length) {
+            grow(count * 2);
+        }
+
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == indexById.length) {
+            indexById = Arrays.copyOf(indexById, id * 2);
+        }
+
+        int index = count++;
+        posX[index] = x;
+        posY[index] = y;
+        posZ[index] = z;
+        velX[index] = 0;
+        velY[index] = 0;
+        velZ[index] = 0;
+        radius[index] = boxRadius;
+        height[index] = boxHeight;
+        onGround[index] = false;
+
+        idByIndex[index] = id;
+        indexById[id] = index;
+        return id;
+    }
+
+    public void remove(int id) {
+        int index = indexOf(id);
+        int last = --count;
+
+        if (index != last) {
+            posX[index] = posX[last];
+            posY[index] = posY[last];
+            posZ[index] = posZ[last];
+            velX[index] = velX[last];
+            velY[index] = velY[last];
+            velZ[index] = velZ[last];
+            radius[index] = radius[last];
+            height[index] = height[last];
+            onGround[index] = onGround[last];
+
+            int movedId = idByIndex[last];
+            idByIndex[index] = movedId;
+            indexById[movedId] = index;
+        }
+
+        indexById[id] = -1;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    public int indexOf(int id) {
+        int index = id >= 0 && id < nextId ? indexById[id] : -1;
+        if (index == -1) {
+            throw new IllegalArgumentException("Unknown entity id: " + id);
+        }
+        return index;
+    }
+
+    public int getId(int index) {
+        return idByIndex[index];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public float getX(int index) {
+        return posX[index];
+    }
+
+    public float getY(int index) {
+        return posY[index];
+    }
+
+    public float getZ(int index) {
+        return posZ[index];
+    }
+
+    public float getVelocityX(int index) {
+        return velX[index];
+    }
+
+    public float getVelocityY(int index) {
+        return velY[index];
+    }
+
+    public float getVelocityZ(int index) {
+        return velZ[index];
+    }
+
+    public float getRadius(int index) {
+        return radius[index];
+    }
+
+    public float getHeight(int index) {
+        return height[index];
+    }
+
+    public boolean isOnGround(int index) {
+        return onGround[index];
+    }
+
+    public void setPosition(int index, float x, float y, float z) {
+        posX[index] = x;
+        posY[index] = y;
+        posZ[index] = z;
+    }
+
+    public void setVelocity(int index, float x, float y, float z) {
+        velX[index] = x;
+        velY[index] = y;
+        velZ[index] = z;
+    }
+
+    private void grow(int capacity) {
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        posZ = Arrays.copyOf(posZ, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        velZ = Arrays.copyOf(velZ, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        height = Arrays.copyOf(height, capacity);
+        onGround = Arrays.copyOf(onGround, capacity);
+        idByIndex = Arrays.copyOf(idByIndex, capacity);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mineshit.game.entity;
+
+import com.mineshit.engine.utils.Statistic;
+import com.mineshit.game.world.ChunkCursor;
+import com.mineshit.game.world.World;
+import com.mineshit.game.world.physics.AabbCollider;
+import lombok.Getter;
+
+import java.util.stream.IntStream;
+
+// Simulation des entités (mobs, objets au sol, projectiles) : gravité puis déplacement balayé contre les blocs
+// avec le même AabbCollider que le joueur, par tranches d'entités réparties sur le pool fork-join. Chaque
+// entité n'écrit que dans sa propre case des tableaux, les tranches n'ont rien à partager. Le thread principal
+// attend la fin de l'intégration (la ChunkMap n'est pas thread-safe), puis reconstruit la grille spatiale.
+// Une entité dont le déplacement toucherait un chunk absent ou pas encore généré reste figée : elle y lirait
+// de l'air et traverserait le terrain.
+public class EntitySystem {
+
+    private static final float GRAVITY = -20.0f;
+    // Vitesse de chute limite : le volume balayé, donc le nombre de blocs lus par le collider, reste borné
+    private static final float MAX_FALL_SPEED = 60.0f;
+    // Entités par tâche : assez pour amortir le découpage, chaque tâche garde son propre chunk courant
+    private static final int SEGMENT_SIZE = 512;
+
+    @Getter
+    private final EntityStore store = new EntityStore();
+    @Getter
+    private final EntitySpatialHash spatialHash = new EntitySpatialHash();
+
+    private final ThreadLocal<AabbCollider> colliders = ThreadLocal.withInitial(AabbCollider::new);
+
+    public void update(World world, float deltaTime) {
+        int count = store.getCount();
+        int segments = (count + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+
+        IntStream range = IntStream.range(0, segments);
+        (segments > 1 ? range.parallel() : range).forEach(segment ->
+                integrate(world, segment * SEGMENT_SIZE, Math.min(count, (segment + 1) * SEGMENT_SIZE), deltaTime));
+
+        spatialHash.build(store);
+
+        Statistic.set("Entities", count);
+    }
+
+    private void integrate(World world, int start, int end, float deltaTime) {
+        AabbCollider collider = colliders.get();
+        ChunkCursor cursor = new ChunkCursor(world);
+
+        float[] posX = store.posX, posY = store.posY, posZ = store.posZ;
+        float[] velX = store.velX, velY = store.velY, velZ = store.velZ;
+
+        for (int i = start; i < end; i++) {
+            float vy = Math.max(velY[i] + GRAVITY * deltaTime, -MAX_FALL_SPEED);
+            float dx = velX[i] * deltaTime, dy = vy * deltaTime, dz = velZ[i] * deltaTime;
+
+            float r = store.radius[i];
+            float h = store.height[i];
+            if (!cursor.isGenerated(
+                    posX[i] - r + Math.min(0, dx), posY[i] + Math.min(0, dy), posZ[i] - r + Math.min(0, dz),
+                    posX[i] + r + Math.max(0, dx), posY[i] + h + Math.max(0, dy), posZ[i] + r + Math.max(0, dz))) {
+                continue;
+            }
+            velY[i] = vy;
+
+            collider.move(cursor, posX[i], posY[i], posZ[i], r, h, dx, dy, dz);
+
+            posX[i] = collider.getResultX();
+            posY[i] = collider.getResultY();
+            posZ[i] = collider.getResultZ();
+
+            store.onGround[i] = collider.isCollidedY() && velY[i] < 0;
+            if (collider.isCollidedX()) velX[i] = 0;
+            if (collider.isCollidedY()) velY[i] = 0;
+            if (collider.isCollidedZ()) velZ[i] = 0;
+        }
+    }
+}
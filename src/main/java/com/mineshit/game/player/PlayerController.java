@@ -2,9 +2,9 @@ package com.mineshit.game.player;
 
 import com.mineshit.engine.graphics.Camera;
 import com.mineshit.engine.input.InputManager;
+import com.mineshit.game.world.ChunkCursor;
 import com.mineshit.game.world.World;
-import com.mineshit.game.world.utils.Chunk;
-import com.mineshit.game.world.utils.BlockType;
+import com.mineshit.game.world.physics.AabbCollider;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 
@@ -26,6 +26,8 @@ public class PlayerController {
 
     private boolean onGround = false;
 
+    private final AabbCollider collider = new AabbCollider();
+
     public void update(InputManager input, Camera camera, World world, float deltaTime) {
         handleInput(input, camera, deltaTime);
         applyGravity(deltaTime);
@@ -67,91 +69,19 @@ public class PlayerController {
         velocity.y += GRAVITY * deltaTime;
     }
 
+    // Déplacement balayé : les blocs traversés par la boîte du joueur sont lus une fois par tick
     private void move(World world, float deltaTime) {
-        Vector3f vertical = new Vector3f(position);
-        vertical.fma(deltaTime, new Vector3f(0, velocity.y, 0));
-        moveAxis(world, vertical, 1);
-
-        Vector3f horizontal = new Vector3f(vertical);
-        horizontal.fma(deltaTime, new Vector3f(velocity.x, 0, velocity.z));
-
-        float density = getDensityAt(world, horizontal);
-        if (density >= 1.0f) {
-            // Bloc solide, on vérifie les axes séparément
-            Vector3f testX = new Vector3f(vertical).fma(deltaTime, new Vector3f(velocity.x, 0, 0));
-            if (getDensityAt(world, testX) < 1.0f) {
-                position.set(testX);
-                return;
-            }
-
-            Vector3f testZ = new Vector3f(vertical).fma(deltaTime, new Vector3f(0, 0, velocity.z));
-            if (getDensityAt(world, testZ) < 1.0f) {
-                position.set(testZ);
-                return;
-            }
-
-            position.set(vertical);
-        } else {
-            // Pas totalement bloqué : on ralentit
-            float slowFactor = 1.0f - density; // ex: densité = 0.3 → 70% de vitesse
-            horizontal.sub(vertical).mul(slowFactor).add(vertical); // interpolation ralentie
-            position.set(horizontal);
-        }
-    }
-
-
-
-    private void moveAxis(World world, Vector3f nextPos, int axis) {
-        float value = nextPos.get(axis);
-        Vector3f testPos = new Vector3f(nextPos);
-        testPos.setComponent(axis, value);
-
-        float density = getDensityAt(world, testPos);
-        if (density >= 1.0f) {
-            // Collision solide
-            nextPos.setComponent(axis, position.get(axis));
+        collider.move(new ChunkCursor(world), position.x, position.y, position.z, PLAYER_RADIUS, PLAYER_HEIGHT,
+                velocity.x * deltaTime, velocity.y * deltaTime, velocity.z * deltaTime);
+        position.set(collider.getResultX(), collider.getResultY(), collider.getResultZ());
 
-            if (axis == 1 && velocity.y < 0) {
-                onGround = true;
-                velocity.y = 0;
-            }
-        } else if (density > 0.0f) {
-            // Traversable mais ralentit (optionnel ici)
-            float slow = 1.0f - density;
-            float original = nextPos.get(axis);
-            float interpolated = position.get(axis) + (original - position.get(axis)) * slow;
-            nextPos.setComponent(axis, interpolated);
+        onGround = collider.isCollidedY() && velocity.y < 0;
+        if (collider.isCollidedY()) {
+            velocity.y = 0;
         }
     }
 
 
-
-    private float getDensityAt(World world, Vector3f pos) {
-        float eye = PLAYER_HEIGHT;
-        float maxDensity = 0.0f;
-
-        for (float x = -PLAYER_RADIUS + 0.05f; x <= PLAYER_RADIUS - 0.05f; x += 0.4f)
-            for (float y = 0.1f; y <= eye; y += 0.4f)
-                for (float z = -PLAYER_RADIUS + 0.05f; z <= PLAYER_RADIUS - 0.05f; z += 0.4f) {
-                    Vector3f sample = new Vector3f(pos).add(x, y, z);
-                    Chunk chunk = world.getChunkAt(sample);
-                    if (chunk != null) {
-                        int bx = (int) Math.floor(sample.x);
-                        int by = (int) Math.floor(sample.y);
-                        int bz = (int) Math.floor(sample.z);
-                        short id = chunk.getBlockAtWorld(bx, by, bz);
-
-                        if (id != 0) {
-                            float density = BlockType.fromId(id).getDensity();
-                            maxDensity = Math.max(maxDensity, density);
-                        }
-                    }
-                }
-
-        return maxDensity;
-    }
-
-
     public boolean isOccupying(Vector3i blockPos) {
         float minX = position.x - PLAYER_RADIUS;
         float maxX = position.x + PLAYER_RADIUS;
@@ -1,5 +1,7 @@
 package com.mineshit.game.utils;
 
+import java.util.Arrays;
+
 // MIT License
 //
 // Copyright(c) 2023 Jordan Peck (jordan.me2@gmail.com)
@@ -403,6 +405,91 @@ public class FastNoiseLite
     }
 
 
+    /// <summary>
+    /// 2D noise on a regular grid using current settings
+    /// </summary>
+    /// <remarks>
+    /// Sample (ix, iy) is taken at ((originX + ix) * step, (originY + iy) * step)
+    /// and written to output[ix + iy * sizeX], with the same value GetNoise(x, y) would return
+    /// </remarks>
+    public void GenNoiseGrid2D(float[] output, int originX, int originY, int sizeX, int sizeY, float step)
+    {
+        Arrays.fill(output, 0, sizeX * sizeY, 0);
+        AccumulateGrid2D(output, originX, originY, sizeX, sizeY, step, 1, 1);
+    }
+
+    /// <summary>
+    /// 3D noise on a regular grid using current settings
+    /// </summary>
+    /// <remarks>
+    /// Sample (ix, iy, iz) is taken at ((originX + ix) * step, (originY + iy) * step, (originZ + iz) * step)
+    /// and written to output[ix + iy * sizeX + iz * sizeX * sizeY], with the same value GetNoise(x, y, z) would return
+    /// </remarks>
+    public void GenNoiseGrid3D(float[] output, int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ, float step)
+    {
+        Arrays.fill(output, 0, sizeX * sizeY * sizeZ, 0);
+        AccumulateGrid3D(output, originX, originY, originZ, sizeX, sizeY, sizeZ, step, 1, 1);
+    }
+
+    /// <summary>
+    /// 2D fixed octave stack on a regular grid, same layout as GenNoiseGrid2D
+    /// </summary>
+    /// <remarks>
+    /// Each sample is the sum of GetNoise(x * lacunarity^o, y * lacunarity^o) * gain^o over the octaves,
+    /// divided by the sum of the amplitudes. Results are identical to evaluating that sum point by point.
+    /// </remarks>
+    public void GenFractalGrid2D(float[] output, int originX, int originY, int sizeX, int sizeY, float step,
+                                 int octaves, float lacunarity, float gain)
+    {
+        Arrays.fill(output, 0, sizeX * sizeY, 0);
+
+        float frequency = 1;
+        float amplitude = 1;
+        float maxAmplitude = 0;
+
+        for (int o = 0; o < octaves; o++)
+        {
+            AccumulateGrid2D(output, originX, originY, sizeX, sizeY, step, frequency, amplitude);
+            maxAmplitude += amplitude;
+            frequency *= lacunarity;
+            amplitude *= gain;
+        }
+
+        for (int i = 0; i < sizeX * sizeY; i++)
+        {
+            output[i] /= maxAmplitude;
+        }
+    }
+
+    /// <summary>
+    /// 3D fixed octave stack on a regular grid, same layout as GenNoiseGrid3D
+    /// </summary>
+    /// <remarks>
+    /// See GenFractalGrid2D
+    /// </remarks>
+    public void GenFractalGrid3D(float[] output, int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ, float step,
+                                 int octaves, float lacunarity, float gain)
+    {
+        Arrays.fill(output, 0, sizeX * sizeY * sizeZ, 0);
+
+        float frequency = 1;
+        float amplitude = 1;
+        float maxAmplitude = 0;
+
+        for (int o = 0; o < octaves; o++)
+        {
+            AccumulateGrid3D(output, originX, originY, originZ, sizeX, sizeY, sizeZ, step, frequency, amplitude);
+            maxAmplitude += amplitude;
+            frequency *= lacunarity;
+            amplitude *= gain;
+        }
+
+        for (int i = 0; i < sizeX * sizeY * sizeZ; i++)
+        {
+            output[i] /= maxAmplitude;
+        }
+    }
+
     /// <summary>
     /// 2D warps the input position using current domain warp settings
     /// </summary>
@@ -452,7 +539,7 @@ public class FastNoiseLite
     }
 
 
-    private static final float[] Gradients2D = {
+    static final float[] Gradients2D = {
             0.130526192220052f,  0.99144486137381f,   0.38268343236509f,   0.923879532511287f,  0.608761429008721f,  0.793353340291235f,  0.793353340291235f,  0.608761429008721f,
             0.923879532511287f,  0.38268343236509f,   0.99144486137381f,   0.130526192220051f,  0.99144486137381f,  -0.130526192220051f,  0.923879532511287f, -0.38268343236509f,
             0.793353340291235f, -0.60876142900872f,   0.608761429008721f, -0.793353340291235f,  0.38268343236509f,  -0.923879532511287f,  0.130526192220052f, -0.99144486137381f,
@@ -522,7 +609,7 @@ public class FastNoiseLite
             0.01426758847f, -0.9998982128f, -0.6734383991f, 0.7392433447f, 0.639412098f, -0.7688642071f, 0.9211571421f, 0.3891908523f, -0.146637214f, -0.9891903394f, -0.782318098f, 0.6228791163f, -0.5039610839f, -0.8637263605f, -0.7743120191f, -0.6328039957f,
     };
 
-    private static final float[] Gradients3D = {
+    static final float[] Gradients3D = {
             0, 1, 1, 0,  0,-1, 1, 0,  0, 1,-1, 0,  0,-1,-1, 0,
             1, 0, 1, 0, -1, 0, 1, 0,  1, 0,-1, 0, -1, 0,-1, 0,
             1, 1, 0, 0, -1, 1, 0, 0,  1,-1, 0, 0, -1,-1, 0, 0,
@@ -621,9 +708,9 @@ public class FastNoiseLite
     }
 
     // Hashing
-    private static final int PrimeX = 501125321;
-    private static final int PrimeY = 1136930381;
-    private static final int PrimeZ = 1720413743;
+    static final int PrimeX = 501125321;
+    static final int PrimeY = 1136930381;
+    static final int PrimeZ = 1720413743;
 
     private static int Hash(int seed, int xPrimed, int yPrimed)
     {
@@ -1889,6 +1976,450 @@ public class FastNoiseLite
     }
 
 
+    // Grid Generation
+    // Noise type and transform are resolved once per grid. Axis coordinates are computed once per row/column,
+    // and the lattice hashes of the current cell are reused while neighbouring samples stay in it.
+    // Every float operation happens in the same order as in GetNoise, so results are bit for bit identical.
+    // OpenSimplex2 and Perlin use the vectorized kernels of FastNoiseSimd when it was built (simd-profile)
+    // and the JVM runs with --add-modules jdk.incubator.vector, and the scalar kernels below otherwise.
+
+    private static final NoiseGridKernels SimdKernels = LoadSimdKernels();
+
+    private static NoiseGridKernels LoadSimdKernels()
+    {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+
+        try
+        {
+            return (NoiseGridKernels) Class.forName("com.mineshit.game.utils.FastNoiseSimd").getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            return null; // Built without simd-profile
+        }
+    }
+
+    private static float[] GridAxis(int origin, int size, float step, float frequency, float noiseFrequency)
+    {
+        float[] axis = new float[size];
+        for (int i = 0; i < size; i++)
+        {
+            axis[i] = (origin + i) * step * frequency * noiseFrequency;
+        }
+        return axis;
+    }
+
+    private void AccumulateGrid2D(float[] output, int originX, int originY, int sizeX, int sizeY, float step,
+                                  float frequency, float amplitude)
+    {
+        if (mFractalType != FractalType.None)
+        {
+            for (int iy = 0, index = 0; iy < sizeY; iy++)
+            {
+                for (int ix = 0; ix < sizeX; ix++, index++)
+                {
+                    output[index] += GetNoise((originX + ix) * step * frequency, (originY + iy) * step * frequency) * amplitude;
+                }
+            }
+            return;
+        }
+
+        float[] xs = GridAxis(originX, sizeX, step, frequency, mFrequency);
+        float[] ys = GridAxis(originY, sizeY, step, frequency, mFrequency);
+
+        switch (mNoiseType)
+        {
+            case OpenSimplex2:
+                if (SimdKernels != null) SimdKernels.simplex2D(output, xs, ys, mSeed, amplitude);
+                else GridSimplex2D(output, xs, ys, amplitude);
+                break;
+            case Perlin:
+                if (SimdKernels != null) SimdKernels.perlin2D(output, xs, ys, mSeed, amplitude);
+                else GridPerlin2D(output, xs, ys, amplitude);
+                break;
+            default:
+                GridGeneric2D(output, xs, ys, amplitude);
+                break;
+        }
+    }
+
+    private void AccumulateGrid3D(float[] output, int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ,
+                                  float step, float frequency, float amplitude)
+    {
+        if (mFractalType != FractalType.None)
+        {
+            for (int iz = 0, index = 0; iz < sizeZ; iz++)
+            {
+                for (int iy = 0; iy < sizeY; iy++)
+                {
+                    for (int ix = 0; ix < sizeX; ix++, index++)
+                    {
+                        output[index] += GetNoise((originX + ix) * step * frequency, (originY + iy) * step * frequency,
+                                (originZ + iz) * step * frequency) * amplitude;
+                    }
+                }
+            }
+            return;
+        }
+
+        float[] xs = GridAxis(originX, sizeX, step, frequency, mFrequency);
+        float[] ys = GridAxis(originY, sizeY, step, frequency, mFrequency);
+        float[] zs = GridAxis(originZ, sizeZ, step, frequency, mFrequency);
+
+        if (mNoiseType == NoiseType.OpenSimplex2 && mTransformType3D == TransformType3D.DefaultOpenSimplex2)
+        {
+            if (SimdKernels != null) SimdKernels.openSimplex2_3D(output, xs, ys, zs, mSeed, amplitude);
+            else GridOpenSimplex2_3D(output, xs, ys, zs, amplitude);
+        }
+        else if (mNoiseType == NoiseType.Perlin && mTransformType3D == TransformType3D.None)
+        {
+            if (SimdKernels != null) SimdKernels.perlin3D(output, xs, ys, zs, mSeed, amplitude);
+            else GridPerlin3D(output, xs, ys, zs, amplitude);
+        }
+        else
+        {
+            GridGeneric3D(output, xs, ys, zs, amplitude);
+        }
+    }
+
+    private static int GradIndex2D(int seed, int xPrimed, int yPrimed)
+    {
+        int hash = Hash(seed, xPrimed, yPrimed);
+        hash ^= hash >> 15;
+        return hash & (127 << 1);
+    }
+
+    private static int GradIndex3D(int seed, int xPrimed, int yPrimed, int zPrimed)
+    {
+        int hash = Hash(seed, xPrimed, yPrimed, zPrimed);
+        hash ^= hash >> 15;
+        return hash & (63 << 2);
+    }
+
+    private static float GradDot2D(int index, float xd, float yd)
+    {
+        return xd * Gradients2D[index] + yd * Gradients2D[index | 1];
+    }
+
+    private static float GradDot3D(int index, float xd, float yd, float zd)
+    {
+        return xd * Gradients3D[index] + yd * Gradients3D[index | 1] + zd * Gradients3D[index | 2];
+    }
+
+    // Same as SingleSimplex, with the skew from GetNoise
+    private void GridSimplex2D(float[] output, float[] xs, float[] ys, float amplitude)
+    {
+        final /*FNLfloat*/ float SQRT3_SKEW = (/*FNLfloat*/ float)1.7320508075688772935274463415059;
+        final /*FNLfloat*/ float F2 = 0.5f * (SQRT3_SKEW - 1);
+        final float SQRT3 = 1.7320508075688772935274463415059f;
+        final float G2 = (3 - SQRT3) / 6;
+
+        int seed = mSeed;
+        boolean cached = false;
+        int cellI = 0, cellJ = 0;
+        int h00 = 0, h01 = 0, h10 = 0, h11 = 0;
+
+        int index = 0;
+        for (/*FNLfloat*/ float yBase : ys)
+        {
+            for (/*FNLfloat*/ float xBase : xs)
+            {
+                /*FNLfloat*/ float t0 = (xBase + yBase) * F2;
+                /*FNLfloat*/ float x = xBase + t0;
+                /*FNLfloat*/ float y = yBase + t0;
+
+                int i = FastFloor(x);
+                int j = FastFloor(y);
+                float xi = x - i;
+                float yi = y - j;
+
+                float t = (xi + yi) * G2;
+                float x0 = xi - t;
+                float y0 = yi - t;
+
+                if (!cached || i != cellI || j != cellJ)
+                {
+                    cached = true;
+                    cellI = i;
+                    cellJ = j;
+
+                    int iPrimed = i * PrimeX;
+                    int jPrimed = j * PrimeY;
+                    h00 = GradIndex2D(seed, iPrimed, jPrimed);
+                    h01 = GradIndex2D(seed, iPrimed, jPrimed + PrimeY);
+                    h10 = GradIndex2D(seed, iPrimed + PrimeX, jPrimed);
+                    h11 = GradIndex2D(seed, iPrimed + PrimeX, jPrimed + PrimeY);
+                }
+
+                float n0, n1, n2;
+
+                float a = 0.5f - x0 * x0 - y0 * y0;
+                if (a <= 0) n0 = 0;
+                else n0 = (a * a) * (a * a) * GradDot2D(h00, x0, y0);
+
+                float c = (2 * (1 - 2 * G2) * (1 / G2 - 2)) * t + ((-2 * (1 - 2 * G2) * (1 - 2 * G2)) + a);
+                if (c <= 0) n2 = 0;
+                else
+                {
+                    float x2 = x0 + (2 * G2 - 1);
+                    float y2 = y0 + (2 * G2 - 1);
+                    n2 = (c * c) * (c * c) * GradDot2D(h11, x2, y2);
+                }
+
+                if (y0 > x0)
+                {
+                    float x1 = x0 + G2;
+                    float y1 = y0 + (G2 - 1);
+                    float b = 0.5f - x1 * x1 - y1 * y1;
+                    if (b <= 0) n1 = 0;
+                    else n1 = (b * b) * (b * b) * GradDot2D(h01, x1, y1);
+                }
+                else
+                {
+                    float x1 = x0 + (G2 - 1);
+                    float y1 = y0 + G2;
+                    float b = 0.5f - x1 * x1 - y1 * y1;
+                    if (b <= 0) n1 = 0;
+                    else n1 = (b * b) * (b * b) * GradDot2D(h10, x1, y1);
+                }
+
+                output[index++] += (n0 + n1 + n2) * 99.83685446303647f * amplitude;
+            }
+        }
+    }
+
+    // Same as SinglePerlin, lattice coordinates and interpolation weights computed once per axis
+    private void GridPerlin2D(float[] output, float[] xs, float[] ys, float amplitude)
+    {
+        int seed = mSeed;
+        int sizeX = xs.length;
+
+        int[] xPrimed = new int[sizeX];
+        float[] xd0 = new float[sizeX];
+        float[] xInterp = new float[sizeX];
+        for (int ix = 0; ix < sizeX; ix++)
+        {
+            int x0 = FastFloor(xs[ix]);
+            xd0[ix] = xs[ix] - x0;
+            xInterp[ix] = InterpQuintic(xd0[ix]);
+            xPrimed[ix] = x0 * PrimeX;
+        }
+
+        int index = 0;
+        for (/*FNLfloat*/ float y : ys)
+        {
+            int y0 = FastFloor(y);
+            float yd0 = y - y0;
+            float yd1 = yd0 - 1;
+            float ys0 = InterpQuintic(yd0);
+            y0 *= PrimeY;
+            int y1 = y0 + PrimeY;
+
+            boolean cached = false;
+            int cellX = 0;
+            int h00 = 0, h10 = 0, h01 = 0, h11 = 0;
+
+            for (int ix = 0; ix < sizeX; ix++)
+            {
+                int x0 = xPrimed[ix];
+                if (!cached || x0 != cellX)
+                {
+                    cached = true;
+                    cellX = x0;
+
+                    int x1 = x0 + PrimeX;
+                    h00 = GradIndex2D(seed, x0, y0);
+                    h10 = GradIndex2D(seed, x1, y0);
+                    h01 = GradIndex2D(seed, x0, y1);
+                    h11 = GradIndex2D(seed, x1, y1);
+                }
+
+                float xdA = xd0[ix];
+                float xdB = xdA - 1;
+                float xf0 = Lerp(GradDot2D(h00, xdA, yd0), GradDot2D(h10, xdB, yd0), xInterp[ix]);
+                float xf1 = Lerp(GradDot2D(h01, xdA, yd1), GradDot2D(h11, xdB, yd1), xInterp[ix]);
+
+                output[index++] += Lerp(xf0, xf1, ys0) * 1.4247691104677813f * amplitude;
+            }
+        }
+    }
+
+    private void GridGeneric2D(float[] output, float[] xs, float[] ys, float amplitude)
+    {
+        boolean skew = mNoiseType == NoiseType.OpenSimplex2S;
+        final /*FNLfloat*/ float SQRT3 = (/*FNLfloat*/ float)1.7320508075688772935274463415059;
+        final /*FNLfloat*/ float F2 = 0.5f * (SQRT3 - 1);
+
+        int index = 0;
+        for (/*FNLfloat*/ float yBase : ys)
+        {
+            for (/*FNLfloat*/ float xBase : xs)
+            {
+                /*FNLfloat*/ float x = xBase;
+                /*FNLfloat*/ float y = yBase;
+                if (skew)
+                {
+                    /*FNLfloat*/ float t = (x + y) * F2;
+                    x += t;
+                    y += t;
+                }
+                output[index++] += GenNoiseSingle(mSeed, x, y) * amplitude;
+            }
+        }
+    }
+
+    // Same as SingleOpenSimplex2, with the rotation from GetNoise
+    private void GridOpenSimplex2_3D(float[] output, float[] xs, float[] ys, float[] zs, float amplitude)
+    {
+        final /*FNLfloat*/ float R3 = (/*FNLfloat*/ float)(2.0 / 3.0);
+
+        int index = 0;
+        for (/*FNLfloat*/ float zBase : zs)
+        {
+            for (/*FNLfloat*/ float yBase : ys)
+            {
+                for (/*FNLfloat*/ float xBase : xs)
+                {
+                    /*FNLfloat*/ float r = (xBase + yBase + zBase) * R3;
+                    output[index++] += SingleOpenSimplex2(mSeed, r - xBase, r - yBase, r - zBase) * amplitude;
+                }
+            }
+        }
+    }
+
+    // Same as SinglePerlin 3D, lattice coordinates and interpolation weights computed once per axis
+    private void GridPerlin3D(float[] output, float[] xs, float[] ys, float[] zs, float amplitude)
+    {
+        int seed = mSeed;
+        int sizeX = xs.length;
+
+        int[] xPrimed = new int[sizeX];
+        float[] xd0 = new float[sizeX];
+        float[] xInterp = new float[sizeX];
+        for (int ix = 0; ix < sizeX; ix++)
+        {
+            int x0 = FastFloor(xs[ix]);
+            xd0[ix] = xs[ix] - x0;
+            xInterp[ix] = InterpQuintic(xd0[ix]);
+            xPrimed[ix] = x0 * PrimeX;
+        }
+
+        int index = 0;
+        for (/*FNLfloat*/ float z : zs)
+        {
+            int z0 = FastFloor(z);
+            float zd0 = z - z0;
+            float zd1 = zd0 - 1;
+            float zInterp = InterpQuintic(zd0);
+            z0 *= PrimeZ;
+            int z1 = z0 + PrimeZ;
+
+            for (/*FNLfloat*/ float y : ys)
+            {
+                int y0 = FastFloor(y);
+                float yd0 = y - y0;
+                float yd1 = yd0 - 1;
+                float yInterp = InterpQuintic(yd0);
+                y0 *= PrimeY;
+                int y1 = y0 + PrimeY;
+
+                boolean cached = false;
+                int cellX = 0;
+                int h000 = 0, h100 = 0, h010 = 0, h110 = 0, h001 = 0, h101 = 0, h011 = 0, h111 = 0;
+
+                for (int ix = 0; ix < sizeX; ix++)
+                {
+                    int x0 = xPrimed[ix];
+                    if (!cached || x0 != cellX)
+                    {
+                        cached = true;
+                        cellX = x0;
+
+                        int x1 = x0 + PrimeX;
+                        h000 = GradIndex3D(seed, x0, y0, z0);
+                        h100 = GradIndex3D(seed, x1, y0, z0);
+                        h010 = GradIndex3D(seed, x0, y1, z0);
+                        h110 = GradIndex3D(seed, x1, y1, z0);
+                        h001 = GradIndex3D(seed, x0, y0, z1);
+                        h101 = GradIndex3D(seed, x1, y0, z1);
+                        h011 = GradIndex3D(seed, x0, y1, z1);
+                        h111 = GradIndex3D(seed, x1, y1, z1);
+                    }
+
+                    float xdA = xd0[ix];
+                    float xdB = xdA - 1;
+                    float xs0 = xInterp[ix];
+
+                    float xf00 = Lerp(GradDot3D(h000, xdA, yd0, zd0), GradDot3D(h100, xdB, yd0, zd0), xs0);
+                    float xf10 = Lerp(GradDot3D(h010, xdA, yd1, zd0), GradDot3D(h110, xdB, yd1, zd0), xs0);
+                    float xf01 = Lerp(GradDot3D(h001, xdA, yd0, zd1), GradDot3D(h101, xdB, yd0, zd1), xs0);
+                    float xf11 = Lerp(GradDot3D(h011, xdA, yd1, zd1), GradDot3D(h111, xdB, yd1, zd1), xs0);
+
+                    float yf0 = Lerp(xf00, xf10, yInterp);
+                    float yf1 = Lerp(xf01, xf11, yInterp);
+
+                    output[index++] += Lerp(yf0, yf1, zInterp) * 0.964921414852142333984375f * amplitude;
+                }
+            }
+        }
+    }
+
+    private void GridGeneric3D(float[] output, float[] xs, float[] ys, float[] zs, float amplitude)
+    {
+        int index = 0;
+        for (/*FNLfloat*/ float z : zs)
+        {
+            for (/*FNLfloat*/ float y : ys)
+            {
+                for (/*FNLfloat*/ float x : xs)
+                {
+                    output[index++] += GetNoiseTransformed3D(x, y, z) * amplitude;
+                }
+            }
+        }
+    }
+
+    // GetNoise 3D without the frequency scaling, already applied by GridAxis
+    private float GetNoiseTransformed3D(/*FNLfloat*/ float x, /*FNLfloat*/ float y, /*FNLfloat*/ float z)
+    {
+        switch (mTransformType3D)
+        {
+            case ImproveXYPlanes:
+            {
+                /*FNLfloat*/ float xy = x + y;
+                /*FNLfloat*/ float s2 = xy * -(/*FNLfloat*/ float)0.211324865405187;
+                z *= (/*FNLfloat*/ float)0.577350269189626;
+                x += s2 - z;
+                y = y + s2 - z;
+                z += xy * (/*FNLfloat*/ float)0.577350269189626;
+            }
+            break;
+            case ImproveXZPlanes:
+            {
+                /*FNLfloat*/ float xz = x + z;
+                /*FNLfloat*/ float s2 = xz * -(/*FNLfloat*/ float)0.211324865405187;
+                y *= (/*FNLfloat*/ float)0.577350269189626;
+                x += s2 - y;
+                z += s2 - y;
+                y += xz * (/*FNLfloat*/ float)0.577350269189626;
+            }
+            break;
+            case DefaultOpenSimplex2:
+            {
+                final /*FNLfloat*/ float R3 = (/*FNLfloat*/ float)(2.0 / 3.0);
+                /*FNLfloat*/ float r = (x + y + z) * R3; // Rotation, not skew
+                x = r - x;
+                y = r - y;
+                z = r - z;
+            }
+            break;
+            default:
+                break;
+        }
+
+        return GenNoiseSingle(mSeed, x, y, z);
+    }
+
     // Domain Warp
 
     private void DoSingleDomainWarp(int seed, float amp, float freq, /*FNLfloat*/ float x, /*FNLfloat*/ float y, Vector2 coord)
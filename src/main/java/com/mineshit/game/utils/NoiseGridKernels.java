@@ -0,0 +1,14 @@
+package com.mineshit.game.utils;
+
+// Noyaux de grille de FastNoiseLite remplaçables par une version vectorisée (FastNoiseSimd, profil simd-profile).
+// Axes déjà mis à l'échelle par GridAxis, output += bruit * amplitude, même résultat bit à bit que le scalaire.
+interface NoiseGridKernels {
+
+    void simplex2D(float[] output, float[] xs, float[] ys, int seed, float amplitude);
+
+    void perlin2D(float[] output, float[] xs, float[] ys, int seed, float amplitude);
+
+    void openSimplex2_3D(float[] output, float[] xs, float[] ys, float[] zs, int seed, float amplitude);
+
+    void perlin3D(float[] output, float[] xs, float[] ys, float[] zs, int seed, float amplitude);
+}
@@ -0,0 +1,64 @@
+package com.mineshit.game.world;
+
+import com.mineshit.game.world.utils.BlockType;
+import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkState;
+
+// Lecture de blocs en coordonnées monde qui garde le dernier chunk lu tant que les blocs demandés y restent :
+// une recherche dans la ChunkMap par chunk traversé au lieu d'une par bloc. À utiliser le temps d'une requête
+// (rayon, déplacement), un chunk gardé plus longtemps a pu être déchargé. Les chunks absents ou pas encore
+// générés se lisent comme de l'air : isGenerated dit si un volume peut être lu tel quel.
+public final class ChunkCursor {
+    private final World world;
+    private Chunk chunk;
+    private int chunkX, chunkY, chunkZ;
+    private boolean loaded;
+
+    public ChunkCursor(World world) {
+        this.world = world;
+    }
+
+    public short getBlock(int x, int y, int z) {
+        int cx = Math.floorDiv(x, Chunk.SIZE);
+        int cy = Math.floorDiv(y, Chunk.SIZE);
+        int cz = Math.floorDiv(z, Chunk.SIZE);
+
+        if (!select(cx, cy, cz)) return BlockType.AIR.getId();
+
+        return chunk.getBlock(x - cx * Chunk.SIZE, y - cy * Chunk.SIZE, z - cz * Chunk.SIZE);
+    }
+
+    // Tous les chunks touchés par la boîte [min, max] (coordonnées monde) sont chargés et générés
+    public boolean isGenerated(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int startX = chunkOf(minX), endX = chunkOf(maxX);
+        int startY = chunkOf(minY), endY = chunkOf(maxY);
+        int startZ = chunkOf(minZ), endZ = chunkOf(maxZ);
+
+        for (int cx = startX; cx <= endX; cx++) {
+            for (int cy = startY; cy <= endY; cy++) {
+                for (int cz = startZ; cz <= endZ; cz++) {
+                    if (!select(cx, cy, cz)) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int chunkOf(float coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), Chunk.SIZE);
+    }
+
+    // Garde le chunk (cx, cy, cz), false s'il est absent ou pas encore généré
+    private boolean select(int cx, int cy, int cz) {
+        if (!loaded || cx != chunkX || cy != chunkY || cz != chunkZ) {
+            chunk = world.getChunk(cx, cy, cz);
+            // En cours de génération par un worker : ses blocs ne sont pas encore lisibles
+            if (chunk != null && chunk.getState() == ChunkState.EMPTY) chunk = null;
+            chunkX = cx;
+            chunkY = cy;
+            chunkZ = cz;
+            loaded = true;
+        }
+        return chunk != null;
+    }
+}
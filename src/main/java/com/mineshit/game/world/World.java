@@ -2,9 +2,14 @@ package com.mineshit.game.world;
 
 import com.mineshit.engine.utils.FaceDirection;
 import com.mineshit.engine.utils.Statistic;
+import com.mineshit.game.entity.EntitySystem;
 import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkMap;
 import com.mineshit.game.world.utils.ChunkState;
+import com.mineshit.game.world.utils.ChunkStateIndex;
 import com.mineshit.game.world.generation.WorldGeneration;
+import com.mineshit.game.world.interaction.RaycastResults;
+import com.mineshit.game.world.interaction.VoxelRaycast;
 import com.mineshit.game.world.interaction.WorldInteraction;
 import lombok.Getter;
 import org.joml.Vector3f;
@@ -13,8 +18,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 public class World {
     private static final Logger LOGGER = LoggerFactory.getLogger(World.class);
@@ -25,21 +28,30 @@ public class World {
     @Getter
     private final WorldInteraction interaction = new WorldInteraction();
 
-    private final Map<Vector3i, Chunk> chunks = new ConcurrentHashMap<>();
-    private final WorldGeneration generation = new WorldGeneration(chunks);
+    private final ChunkMap chunks = new ChunkMap();
+    @Getter
+    private final ChunkStateIndex stateIndex = new ChunkStateIndex();
+    private final WorldGeneration generation = new WorldGeneration(chunks, stateIndex);
+    @Getter
+    private final EntitySystem entities = new EntitySystem();
+
+    public List<Chunk> getChunks(ChunkState... states) {
+        List<Chunk> result = new ArrayList<>();
+        for (ChunkState state : states) {
+            result.addAll(stateIndex.get(state));
+        }
+        return result;
+    }
 
-    public Set<Chunk> getChunks(ChunkState... states) {
-        return chunks.values().stream()
-                .filter(Objects::nonNull)
-                .filter(chunk -> Set.of(states).contains(chunk.getState()))
-                .collect(Collectors.toSet());
+    // Coordonnées de chunk
+    public Chunk getChunk(int chunkX, int chunkY, int chunkZ) {
+        return chunks.get(chunkX, chunkY, chunkZ);
     }
 
     public Map<FaceDirection, Chunk> getNeighborChunks(Vector3i position) {
         Map<FaceDirection, Chunk> neighbors = new EnumMap<>(FaceDirection.class);
         for (FaceDirection dir : FaceDirection.values()) {
-            Vector3i neighborPos = new Vector3i(position).add(dir.getOffset());
-            Chunk neighbor = chunks.get(neighborPos);
+            Chunk neighbor = chunks.get(position.x + dir.getOffsetX(), position.y + dir.getOffsetY(), position.z + dir.getOffsetZ());
             if (neighbor != null) {
                 neighbors.put(dir, neighbor);
             }
@@ -51,7 +63,13 @@ public class World {
         int chunkX = (int) Math.floor(worldPos.x / Chunk.SIZE);
         int chunkY = (int) Math.floor(worldPos.y / Chunk.SIZE);
         int chunkZ = (int) Math.floor(worldPos.z / Chunk.SIZE);
-        return chunks.get(new Vector3i(chunkX, chunkY, chunkZ));
+        return chunks.get(chunkX, chunkY, chunkZ);
+    }
+
+    // Lot de rayons pour la visibilité, les explosions ou l'occlusion du son : origines et directions xyz
+    // entrelacées (3 * count valeurs), résultats indexés comme les rayons. Bloque jusqu'à la fin du lot.
+    public void raycast(float[] origins, float[] directions, int count, float maxDistance, RaycastResults results, boolean parallel) {
+        VoxelRaycast.castBatch(this, origins, directions, count, maxDistance, results, parallel);
     }
 
     public void setDirtyNeighborBlock(Chunk chunk, int localX, int localY, int localZ) {
@@ -63,11 +81,14 @@ public class World {
             int nz = localZ + dir.getOffsetZ();
 
             if (chunk.isOutOfBounds(nx, ny, nz)) {
-                Vector3i neighborPos = new Vector3i(chunkPos).add(dir.getOffset());
-                Chunk neighbor = chunks.get(neighborPos);
-
-                if (neighbor != null && neighbor.getState() == ChunkState.MESHED) {
-                    neighbor.setState(ChunkState.DIRTY);
+                Chunk neighbor = chunks.get(chunkPos.x + dir.getOffsetX(), chunkPos.y + dir.getOffsetY(), chunkPos.z + dir.getOffsetZ());
+
+                // Seul un voisin qui partage la face éditée est remeshé, sur la voie prioritaire
+                if (neighbor != null && (neighbor.getState() == ChunkState.MESHED
+                        || neighbor.getState() == ChunkState.MESHING
+                        || neighbor.getState() == ChunkState.DIRTY)) {
+                    neighbor.markDirtySections((ny + Chunk.SIZE) % Chunk.SIZE);
+                    neighbor.setState(ChunkState.DIRTY_NOW);
                 }
             }
         }
@@ -75,8 +96,9 @@ public class World {
 
 
 
-    public void update(Vector3f cameraPosition) {
+    public void update(Vector3f cameraPosition, float deltaTime) {
         generation.update(cameraPosition);
+        entities.update(this, deltaTime);
         Statistic.set("Chunk",chunks.size());
     }
 
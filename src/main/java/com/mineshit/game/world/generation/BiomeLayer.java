@@ -0,0 +1,47 @@
+package com.mineshit.game.world.generation;
+
+import com.mineshit.game.utils.FastNoiseLite;
+import com.mineshit.game.world.utils.Chunk;
+
+// Biomes par colonne de chunks : le climat (température, humidité) ne dépend que de (x, z),
+// il est calculé une fois par colonne et réutilisé par tous les chunks verticaux et les requêtes voisines
+public class BiomeLayer {
+
+    private static final int COLUMN_CACHE_SIZE = 1024;
+    private static final float CLIMATE_SCALE = 0.01f;
+
+    private static final FastNoiseLite tempNoise = new FastNoiseLite();
+    private static final FastNoiseLite humNoise = new FastNoiseLite();
+
+    static {
+        tempNoise.SetSeed((int) GenerationEngine.SEED + 123);
+        humNoise.SetSeed((int) GenerationEngine.SEED + 456);
+    }
+
+    private static final ColumnCache<BiomeType[]> biomeColumns = new ColumnCache<>(COLUMN_CACHE_SIZE, BiomeLayer::computeBiomeColumn);
+
+    // Biomes de la colonne, indexés x + z * Chunk.SIZE
+    public static BiomeType[] getColumn(int chunkX, int chunkZ) {
+        return biomeColumns.get(chunkX, chunkZ);
+    }
+
+    public static BiomeType getBiome(int x, int z) {
+        int chunkX = Math.floorDiv(x, Chunk.SIZE);
+        int chunkZ = Math.floorDiv(z, Chunk.SIZE);
+        return getColumn(chunkX, chunkZ)[Math.floorMod(x, Chunk.SIZE) + Math.floorMod(z, Chunk.SIZE) * Chunk.SIZE];
+    }
+
+    private static BiomeType[] computeBiomeColumn(int chunkX, int chunkZ) {
+        float[] temperatures = new float[Chunk.SIZE * Chunk.SIZE];
+        float[] humidities = new float[Chunk.SIZE * Chunk.SIZE];
+        tempNoise.GenFractalGrid2D(temperatures, chunkX * Chunk.SIZE, chunkZ * Chunk.SIZE, Chunk.SIZE, Chunk.SIZE, CLIMATE_SCALE, 4, 2.0f, 0.5f);
+        humNoise.GenFractalGrid2D(humidities, chunkX * Chunk.SIZE, chunkZ * Chunk.SIZE, Chunk.SIZE, Chunk.SIZE, CLIMATE_SCALE, 4, 2.0f, 0.5f);
+
+        BiomeType[] biomes = new BiomeType[Chunk.SIZE * Chunk.SIZE];
+        for (int i = 0; i < biomes.length; i++) {
+            biomes[i] = BiomeType.fromClimate(temperatures[i], humidities[i]);
+        }
+
+        return biomes;
+    }
+}
@@ -0,0 +1,133 @@
+package com.mineshit.game.world.generation;
+
+import com.mineshit.engine.utils.WorkerThreads;
+import com.mineshit.game.world.generation.PendingBlockEdits.ChunkEdits;
+import com.mineshit.game.world.storage.ChunkStorage;
+import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkState;
+import org.joml.Vector3i;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Génération multi-thread : les chunks les plus proches de la caméra passent en premier,
+// un chunk déchargé (DELETED) avant d'avoir été pris par un worker est simplement sauté.
+// Un chunk déjà sauvegardé est relu plutôt que regénéré
+public class ChunkGenerationScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkGenerationScheduler.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+    // Passe devant tous les jobs : un par worker à l'arrêt
+    private static final GenerationJob STOP = new GenerationJob(null, Long.MIN_VALUE, 0);
+
+    private final PriorityBlockingQueue<GenerationJob> jobs = new PriorityBlockingQueue<>();
+    private final Queue<Chunk> generatedChunks;
+    private final ChunkStorage storage;
+    private final PendingBlockEdits pendingEdits;
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    public ChunkGenerationScheduler(Queue<Chunk> generatedChunks, ChunkStorage storage, PendingBlockEdits pendingEdits) {
+        this.generatedChunks = generatedChunks;
+        this.storage = storage;
+        this.pendingEdits = pendingEdits;
+
+        int workerCount = WorkerThreads.GENERATION;
+        LOGGER.info("Starting {} generation workers", workerCount);
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "chunk-generator-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    public void submit(Chunk chunk, Vector3i cameraChunk) {
+        jobs.add(new GenerationJob(chunk, getPriority(chunk, cameraChunk), sequence.getAndIncrement()));
+    }
+
+    // À appeler quand la caméra change de chunk : les jobs restants sont reclassés, ceux des chunks déchargés jetés
+    public void reprioritize(Vector3i cameraChunk) {
+        List<GenerationJob> pending = new ArrayList<>();
+        jobs.drainTo(pending);
+
+        for (GenerationJob job : pending) {
+            if (job.chunk().getState() == ChunkState.DELETED) continue;
+            jobs.add(new GenerationJob(job.chunk(), getPriority(job.chunk(), cameraChunk), job.sequence()));
+        }
+    }
+
+    public int getQueueSize() {
+        return jobs.size();
+    }
+
+    // Les jobs en cours vont au bout avant la sauvegarde et la fermeture des régions : pas d'interruption,
+    // qui fermerait aussi le FileChannel d'une région en cours d'ouverture
+    public void cleanup() {
+        running = false;
+        jobs.clear();
+        workers.forEach(worker -> jobs.add(STOP));
+
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (worker.isAlive()) {
+                LOGGER.warn("Generation worker {} still running after shutdown timeout", worker.getName());
+            }
+        }
+    }
+
+    private void work() {
+        while (running) {
+            GenerationJob job;
+            try {
+                job = jobs.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (job == STOP) return;
+
+            Chunk chunk = job.chunk();
+            if (chunk.getState() == ChunkState.DELETED) continue;
+
+            try {
+                ChunkEdits edits = storage.load(chunk);
+                if (edits != null) {
+                    GenerationEngine.restoreChunkData(chunk, edits, pendingEdits);
+                } else {
+                    GenerationEngine.generateChunkData(chunk, pendingEdits);
+                }
+                chunk.setState(ChunkState.GENERATED);
+                if (chunk.getState() == ChunkState.GENERATED) generatedChunks.add(chunk);
+            } catch (Exception e) {
+                LOGGER.warn("Generation failed for chunk {}", chunk.getPosition(), e);
+            }
+        }
+    }
+
+    private static long getPriority(Chunk chunk, Vector3i cameraChunk) {
+        return chunk.getPosition().distanceSquared(cameraChunk);
+    }
+
+    private record GenerationJob(Chunk chunk, long priority, long sequence) implements Comparable<GenerationJob> {
+
+        @Override
+        public int compareTo(GenerationJob other) {
+            int byPriority = Long.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
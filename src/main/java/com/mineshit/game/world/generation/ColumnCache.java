@@ -0,0 +1,48 @@
+package com.mineshit.game.world.generation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Cache LRU borné de données par colonne de chunks (x, z), partagé par les workers de génération :
+// tous les chunks d'une même colonne réutilisent le calcul. Le calcul se fait hors verrou, si deux
+// workers calculent la même colonne en même temps le premier résultat inséré est gardé.
+public class ColumnCache<T> {
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(int chunkX, int chunkZ);
+    }
+
+    private final Map<Long, T> entries;
+    private final Loader<T> loader;
+
+    public ColumnCache(int capacity, Loader<T> loader) {
+        this.loader = loader;
+        this.entries = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public T get(int chunkX, int chunkZ) {
+        long key = pack(chunkX, chunkZ);
+
+        synchronized (entries) {
+            T value = entries.get(key);
+            if (value != null) return value;
+        }
+
+        T value = loader.load(chunkX, chunkZ);
+
+        synchronized (entries) {
+            T existing = entries.putIfAbsent(key, value);
+            return existing != null ? existing : value;
+        }
+    }
+
+    private static long pack(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
@@ -1,91 +1,209 @@
 package com.mineshit.game.world.generation;
 
 import com.mineshit.game.utils.FastNoiseLite;
+import com.mineshit.game.world.generation.PendingBlockEdits.BlockEdit;
+import com.mineshit.game.world.generation.PendingBlockEdits.ChunkEdits;
 import com.mineshit.game.world.utils.BlockType;
 import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkMap;
+import com.mineshit.game.world.utils.ChunkState;
+import org.joml.Vector3i;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static java.lang.Math.pow;
 
 public class GenerationEngine {
 
-    private static final long SEED = 1;
+    static final long SEED = 1;
     private static final float AMPLITUDE = 25.0f;
     private static final int BASE_HEIGHT = 0;
     private static final int WATER_LEVEL = 0;
+    private static final int DIRT_DEPTH = 3;
+    private static final int COLUMN_CACHE_SIZE = 1024;
 
     private static final FastNoiseLite noise = new FastNoiseLite();
-    private static final FastNoiseLite tempNoise = new FastNoiseLite();
-    private static final FastNoiseLite humNoise = new FastNoiseLite();
     private static final FastNoiseLite treeNoise = new FastNoiseLite();
 
     static {
         noise.SetSeed((int) SEED);
-        tempNoise.SetSeed((int) SEED + 123);
-        humNoise.SetSeed((int) SEED + 456);
         treeNoise.SetSeed((int) SEED + 999);
     }
 
-    public static void generateChunkData(Chunk chunk) {
+    private static final ColumnCache<TerrainColumn> terrainColumns = new ColumnCache<>(COLUMN_CACHE_SIZE, GenerationEngine::computeTerrainColumn);
 
-        short[] data = new short[Chunk.TOTAL_BLOCKS];
+    // pendingEdits appartient au monde du chunk (WorldGeneration)
+    public static void generateChunkData(Chunk chunk, PendingBlockEdits pendingEdits) {
+        Vector3i position = chunk.getPosition();
+
+        int chunkGlobalX = position.x * Chunk.SIZE;
+        int chunkGlobalZ = position.z * Chunk.SIZE;
+        int chunkGlobalY = position.y * Chunk.SIZE;
+
+        TerrainColumn column = terrainColumns.get(position.x, position.z);
+        List<BlockEdit> incoming = takeIncoming(chunk, ChunkMap.pack(position.x, position.y, position.z), pendingEdits);
+
+        // Chunk entièrement au-dessus de la surface et de l'eau, ou entièrement sous la couche de terre :
+        // rempli directement, sans passer par le tableau de blocs, sauf s'il a reçu des blocs de ses voisins
+        if (incoming.isEmpty() && chunkGlobalY > Math.max(column.maxHeight(), WATER_LEVEL)) {
+            chunk.fillChunk(BlockType.AIR);
+            return;
+        }
+        if (incoming.isEmpty() && chunkGlobalY + Chunk.SIZE - 1 < column.minHeight() - DIRT_DEPTH) {
+            chunk.fillChunk(BlockType.STONE);
+            return;
+        }
 
-        int chunkGlobalX = chunk.getPosition().x * Chunk.SIZE;
-        int chunkGlobalZ = chunk.getPosition().z * Chunk.SIZE;
-        int chunkGlobalY = chunk.getPosition().y * Chunk.SIZE;
+        short[] data = new short[Chunk.TOTAL_BLOCKS];
+        BiomeType[] biomes = BiomeLayer.getColumn(position.x, position.z);
 
         for (int x = 0; x < Chunk.SIZE; x++) {
             for (int z = 0; z < Chunk.SIZE; z++) {
                 int globalX = chunkGlobalX + x;
                 int globalZ = chunkGlobalZ + z;
 
-                float height = getFractalNoise(noise, globalX * 0.3f, globalZ * 0.3f, 4, 2.0f, 0.5f) * AMPLITUDE + BASE_HEIGHT;
-                int heightInt = (int) height;
+                int heightInt = column.getHeight(x, z);
+                BiomeType biome = biomes[x + z * Chunk.SIZE];
 
                 for (int y = 0; y < Chunk.SIZE; y++) {
                     int globalY = chunkGlobalY + y;
-                    BiomeType biome = getBiomeAt(globalX, globalZ);
 
+                    BlockType block;
                     if (globalY > Math.max(heightInt, WATER_LEVEL)) {
-                        chunk.setBlock(x, y, z, BlockType.AIR);
+                        block = BlockType.AIR;
                     } else if (globalY > heightInt && globalY <= WATER_LEVEL) {
-                        chunk.setBlock(x, y, z, BlockType.WATER);
+                        block = BlockType.WATER;
                     } else if (globalY == heightInt) {
-                        switch (biome) {
-                            case DESERT -> chunk.setBlock(x, y, z, BlockType.SAND);
-                            case MOUNTAIN -> chunk.setBlock(x, y, z, BlockType.STONE);
-                            case OCEAN -> chunk.setBlock(x, y, z, BlockType.WATER);
-                            case PLAIN -> chunk.setBlock(x, y, z, BlockType.GRASS_BLOCK);
-                        }
-                    } else if (globalY >= heightInt - 3) {
-                        chunk.setBlock(x, y, z, BlockType.DIRT);
+                        block = switch (biome) {
+                            case DESERT -> BlockType.SAND;
+                            case MOUNTAIN -> BlockType.STONE;
+                            case OCEAN -> BlockType.WATER;
+                            case PLAIN -> BlockType.GRASS_BLOCK;
+                        };
+                    } else if (globalY >= heightInt - DIRT_DEPTH) {
+                        block = BlockType.DIRT;
                     } else {
-                        chunk.setBlock(x, y, z, BlockType.STONE);
+                        block = BlockType.STONE;
                     }
+
+                    data[Chunk.getBlockIndex(x, y, z)] = block.getId();
                 }
             }
         }
 
-        for (int x = 2; x < Chunk.SIZE - 2; x++) {
-            for (int z = 2; z < Chunk.SIZE - 2; z++) {
+        // Décoration : les arbres et plantes qui débordent du chunk sont envoyés à leurs voisins,
+        // puis les blocs reçus des voisins déjà décorés sont posés par-dessus
+        Map<Long, List<BlockEdit>> outgoing = new HashMap<>();
+        // Bruits des arbres, herbes et fleurs, en grilles sur tout le chunk au premier bloc d'herbe rencontré
+        float[] treeValues = null, grassValues = null, flowerValues = null;
+
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
                 int globalX = chunkGlobalX + x;
                 int globalZ = chunkGlobalZ + z;
 
-                int surfaceY = getSurfaceY(chunk, x, z);
+                int surfaceY = getSurfaceY(data, x, z);
                 if (surfaceY == -1) continue;
 
-                if (chunk.getBlock(x, surfaceY, z) == BlockType.GRASS_BLOCK.getId()) {
-                    if (shouldPlace(treeNoise.GetNoise(globalX, globalZ), globalX, globalZ, 0.5f, 2.0f)) {
-                        tryPlaceTree(chunk, x, surfaceY + 1, z);
+                if (data[Chunk.getBlockIndex(x, surfaceY, z)] == BlockType.GRASS_BLOCK.getId()) {
+                    if (treeValues == null) {
+                        treeValues = new float[Chunk.SIZE * Chunk.SIZE];
+                        grassValues = new float[Chunk.SIZE * Chunk.SIZE];
+                        flowerValues = new float[Chunk.SIZE * Chunk.SIZE];
+                        treeNoise.GenNoiseGrid2D(treeValues, chunkGlobalX, chunkGlobalZ, Chunk.SIZE, Chunk.SIZE, 1.0f);
+                        treeNoise.GenNoiseGrid2D(grassValues, chunkGlobalX + 2000, chunkGlobalZ + 2000, Chunk.SIZE, Chunk.SIZE, 1.0f);
+                        treeNoise.GenNoiseGrid2D(flowerValues, chunkGlobalX + 3500, chunkGlobalZ + 3500, Chunk.SIZE, Chunk.SIZE, 1.0f);
                     }
-                    else if (shouldPlace(treeNoise.GetNoise(globalX + 2000, globalZ + 2000), globalX, globalZ, 0.65f, 1.5f)) {
-                        chunk.setBlock(x, surfaceY + 1, z, BlockType.GRASS);
+                    int noiseIndex = x + z * Chunk.SIZE;
+
+                    if (shouldPlace(treeValues[noiseIndex], globalX, globalZ, 0.5f, 2.0f)) {
+                        placeTree(data, outgoing, position, x, surfaceY + 1, z);
+                    }
+                    else if (shouldPlace(grassValues[noiseIndex], globalX, globalZ, 0.65f, 1.5f)) {
+                        placeBlock(data, outgoing, position, x, surfaceY + 1, z, BlockType.GRASS, true);
                     }
-                    else if (shouldPlace(treeNoise.GetNoise(globalX + 3500, globalZ + 3500), globalX, globalZ, 0.85f, 2.0f)){
-                        chunk.setBlock(x, surfaceY + 1, z, BlockType.YELLOW_FLOWER);
+                    else if (shouldPlace(flowerValues[noiseIndex], globalX, globalZ, 0.85f, 2.0f)){
+                        placeBlock(data, outgoing, position, x, surfaceY + 1, z, BlockType.YELLOW_FLOWER, true);
                     }
                 }
             }
         }
+
+        PendingBlockEdits.apply(data, incoming);
+        if (!outgoing.isEmpty()) {
+            pendingEdits.offer(ChunkMap.pack(position.x, position.y, position.z), outgoing);
+        }
+        keepSentEdits(chunk, outgoing, pendingEdits);
+
+        chunk.setAllBlocks(data);
+    }
+
+    // Chunk relu depuis le disque, déjà décoré : sans bruit ni biome, ses blocs envoyés aux voisins sont
+    // renvoyés tels que sauvegardés, puis les blocs reçus depuis sa sauvegarde sont posés
+    public static void restoreChunkData(Chunk chunk, ChunkEdits edits, PendingBlockEdits pendingEdits) {
+        Vector3i position = chunk.getPosition();
+        long key = ChunkMap.pack(position.x, position.y, position.z);
+
+        if (!edits.sent().isEmpty()) {
+            pendingEdits.offer(key, edits.sent());
+        }
+        keepSentEdits(chunk, edits.sent(), pendingEdits);
+
+        pendingEdits.restore(key, edits.appliedSources());
+        PendingBlockEdits.apply(chunk, takeIncoming(chunk, key, pendingEdits));
+    }
+
+    // Thread principal, chunk déchargé (DELETED) : ce qu'il faut sauvegarder avec ses blocs
+    public static ChunkEdits takeChunkEdits(Chunk chunk, PendingBlockEdits pendingEdits) {
+        Vector3i position = chunk.getPosition();
+        long key = ChunkMap.pack(position.x, position.y, position.z);
+
+        ChunkEdits edits = new ChunkEdits(pendingEdits.getAppliedSources(key), pendingEdits.takeSent(key));
+        pendingEdits.release(key);
+        return edits;
+    }
+
+    // Déchargé avant que le worker ne prenne ses blocs : personne d'autre ne relâchera sa cible
+    private static List<BlockEdit> takeIncoming(Chunk chunk, long key, PendingBlockEdits pendingEdits) {
+        List<BlockEdit> incoming = pendingEdits.take(key);
+        if (chunk.getState() == ChunkState.DELETED) {
+            pendingEdits.release(key);
+        }
+        return incoming;
+    }
+
+    // Un chunk déchargé pendant sa génération ne sera pas sauvegardé : rien à garder
+    private static void keepSentEdits(Chunk chunk, Map<Long, List<BlockEdit>> outgoing, PendingBlockEdits pendingEdits) {
+        Vector3i position = chunk.getPosition();
+        long key = ChunkMap.pack(position.x, position.y, position.z);
+
+        pendingEdits.keepSent(key, outgoing);
+        if (chunk.getState() == ChunkState.DELETED) {
+            pendingEdits.takeSent(key);
+        }
+    }
+
+    private static TerrainColumn computeTerrainColumn(int chunkX, int chunkZ) {
+        float[] noiseValues = new float[Chunk.SIZE * Chunk.SIZE];
+        noise.GenFractalGrid2D(noiseValues, chunkX * Chunk.SIZE, chunkZ * Chunk.SIZE, Chunk.SIZE, Chunk.SIZE, 0.3f, 4, 2.0f, 0.5f);
+
+        int[] heights = new int[Chunk.SIZE * Chunk.SIZE];
+        int minHeight = Integer.MAX_VALUE;
+        int maxHeight = Integer.MIN_VALUE;
+
+        for (int i = 0; i < heights.length; i++) {
+            float height = noiseValues[i] * AMPLITUDE + BASE_HEIGHT;
+            int heightInt = (int) height;
+
+            heights[i] = heightInt;
+            minHeight = Math.min(minHeight, heightInt);
+            maxHeight = Math.max(maxHeight, heightInt);
+        }
+
+        return new TerrainColumn(heights, minHeight, maxHeight);
     }
 
     private static boolean shouldPlace(float noiseValue, int globalX, int globalZ, float rarity, float steepness) {
@@ -106,20 +224,19 @@ public class GenerationEngine {
         return hash2D(x, z);
     }
 
-    private static int getSurfaceY(Chunk chunk, int x, int z) {
+    private static int getSurfaceY(short[] data, int x, int z) {
         for (int y = Chunk.SIZE - 1; y >= 0; y--) {
-            if (chunk.getBlock(x, y, z) != BlockType.AIR.getId()) {
+            if (data[Chunk.getBlockIndex(x, y, z)] != BlockType.AIR.getId()) {
                 return y;
             }
         }
         return -1;
     }
 
-    private static void tryPlaceTree(Chunk chunk, int x, int y, int z) {
-        if (!chunk.isInBounds(x, y + 5, z)) return;
-
+    // Coordonnées locales au chunk, le tronc et le feuillage peuvent en sortir
+    private static void placeTree(short[] data, Map<Long, List<BlockEdit>> outgoing, Vector3i position, int x, int y, int z) {
         for (int i = 0; i < 4; i++) {
-            chunk.setBlock(x, y + i, z, BlockType.WOOD_LOG);
+            placeBlock(data, outgoing, position, x, y + i, z, BlockType.WOOD_LOG, false);
         }
 
         for (int dx = -2; dx <= 2; dx++) {
@@ -127,37 +244,35 @@ public class GenerationEngine {
                 for (int dz = -2; dz <= 2; dz++) {
                     int dist = dx * dx + dy * dy + dz * dz;
                     if (dist <= 5) {
-                        int px = x + dx;
-                        int py = y + 3 + dy;
-                        int pz = z + dz;
-                        if (chunk.isInBounds(px, py, pz) && chunk.getBlock(px, py, pz) == BlockType.AIR.getId()) {
-                            chunk.setBlock(px, py, pz, BlockType.LEAVE);
-                        }
+                        placeBlock(data, outgoing, position, x + dx, y + 3 + dy, z + dz, BlockType.LEAVE, true);
                     }
                 }
             }
         }
     }
 
-    public static BiomeType getBiomeAt(int x, int z) {
-        float temperature = getFractalNoise(tempNoise, x * 0.01f, z * 0.01f, 4, 2.0f, 0.5f);
-        float humidity = getFractalNoise(humNoise, x * 0.01f, z * 0.01f, 4, 2.0f, 0.5f);
-        return BiomeType.fromClimate(temperature, humidity);
+    // Hors du chunk, le bloc est mis en attente pour le chunk voisin qui le contient
+    private static void placeBlock(short[] data, Map<Long, List<BlockEdit>> outgoing, Vector3i position,
+                                   int x, int y, int z, BlockType block, boolean replaceAirOnly) {
+        if (isInBounds(x, y, z)) {
+            int index = Chunk.getBlockIndex(x, y, z);
+            if (!replaceAirOnly || data[index] == BlockType.AIR.getId()) {
+                data[index] = block.getId();
+            }
+            return;
+        }
+
+        long target = ChunkMap.pack(position.x + Math.floorDiv(x, Chunk.SIZE), position.y + Math.floorDiv(y, Chunk.SIZE),
+                position.z + Math.floorDiv(z, Chunk.SIZE));
+        int index = Chunk.getBlockIndex(Math.floorMod(x, Chunk.SIZE), Math.floorMod(y, Chunk.SIZE), Math.floorMod(z, Chunk.SIZE));
+        outgoing.computeIfAbsent(target, key -> new ArrayList<>()).add(new BlockEdit(index, block.getId(), replaceAirOnly));
     }
 
-    public static float getFractalNoise(FastNoiseLite noise, float x, float y, int octaves, float lacunarity, float gain) {
-        float total = 0f;
-        float frequency = 1f;
-        float amplitude = 1f;
-        float maxAmplitude = 0f;
-
-        for (int i = 0; i < octaves; i++) {
-            total += noise.GetNoise(x * frequency, y * frequency) * amplitude;
-            maxAmplitude += amplitude;
-            frequency *= lacunarity;
-            amplitude *= gain;
-        }
+    private static boolean isInBounds(int x, int y, int z) {
+        return x >= 0 && x < Chunk.SIZE && y >= 0 && y < Chunk.SIZE && z >= 0 && z < Chunk.SIZE;
+    }
 
-        return total / maxAmplitude;
+    public static BiomeType getBiomeAt(int x, int z) {
+        return BiomeLayer.getBiome(x, z);
     }
 }
@@ -0,0 +1,184 @@
+package com.mineshit.game.world.generation;
+
+import com.mineshit.game.world.utils.BlockRegistry;
+import com.mineshit.game.world.utils.BlockType;
+import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkMap;
+import com.mineshit.game.world.utils.ChunkState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Blocs de structures (arbres) qui débordent d'un chunk, en attente par chunk cible (clé ChunkMap.pack).
+// Un chunk qui se génère lit ce qu'il a reçu, sans attendre ses voisins.
+// Ce qui arrive pour un chunk déjà généré est posé par le thread principal (applyLateEdits).
+// Les cibles des chunks chargés ne sont jamais évincées, celles des chunks déchargés restent en mémoire (LRU).
+// Un chunk rechargé y récupère les blocs de voisins qui ne seront pas regénérés.
+// Les sources déjà posées dans un chunk et les blocs qu'il a envoyés sont sauvegardés avec lui.
+// Un bloc reçu puis cassé par le joueur ne revient donc pas.
+// Une instance par monde, partagée par ses workers de génération.
+public class PendingBlockEdits {
+
+    // Index dans le chunk cible (Chunk.getBlockIndex), replaceAirOnly pour ne pas écraser le terrain
+    public record BlockEdit(int index, short blockId, boolean replaceAirOnly) {
+    }
+
+    // Ce qu'un chunk sauvegarde avec ses blocs : sources déjà posées et blocs envoyés aux voisins, par cible
+    public record ChunkEdits(long[] appliedSources, Map<Long, List<BlockEdit>> sent) {
+    }
+
+    private static final class Target {
+        // Par chunk source : une source déjà reçue n'est pas réenregistrée, sa génération est déterministe
+        final Map<Long, List<BlockEdit>> editsBySource = new HashMap<>();
+        final Set<Long> appliedSources = new HashSet<>();
+        boolean generated;
+    }
+
+    private record LateEdits(long target, long source, List<BlockEdit> edits) {
+    }
+
+    // Chunks pris par take jusqu'à release, puis chunks déchargés (LRU) ; les deux sous le verrou de l'instance
+    private final Map<Long, Target> loadedTargets = new HashMap<>();
+    private final Map<Long, Target> unloadedTargets;
+    private final Queue<LateEdits> lateEdits = new ConcurrentLinkedQueue<>();
+    // Blocs envoyés aux voisins par chaque chunk chargé, sauvegardés avec lui au déchargement
+    private final Map<Long, Map<Long, List<BlockEdit>>> sentEdits = new ConcurrentHashMap<>();
+
+    public PendingBlockEdits(int capacity) {
+        this.unloadedTargets = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Target> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Appelé par les workers de génération avec les éditions d'un chunk source, par chunk cible
+    public synchronized void offer(long source, Map<Long, List<BlockEdit>> editsByTarget) {
+        for (Map.Entry<Long, List<BlockEdit>> entry : editsByTarget.entrySet()) {
+            Target target = getOrCreate(entry.getKey());
+            if (target.editsBySource.putIfAbsent(source, entry.getValue()) != null) continue;
+
+            if (target.generated) {
+                lateEdits.add(new LateEdits(entry.getKey(), source, entry.getValue()));
+            }
+        }
+    }
+
+    // Éditions reçues par le chunk et pas encore posées, à appliquer par sa génération (ou après sa relecture) ;
+    // les suivantes passeront par applyLateEdits. La cible reste épinglée jusqu'à release
+    public synchronized List<BlockEdit> take(long key) {
+        Target target = unloadedTargets.remove(key);
+        if (target == null) target = loadedTargets.get(key);
+        if (target == null) target = new Target();
+        loadedTargets.put(key, target);
+        target.generated = true;
+
+        List<BlockEdit> edits = new ArrayList<>();
+        for (Map.Entry<Long, List<BlockEdit>> entry : target.editsBySource.entrySet()) {
+            if (target.appliedSources.add(entry.getKey())) {
+                edits.addAll(entry.getValue());
+            }
+        }
+        return edits;
+    }
+
+    // Chunk déchargé : sa cible retourne dans la LRU, les éditions suivantes attendront son rechargement.
+    // Ses sources posées ne valent que pour sa sauvegarde (getAppliedSources avant release) : relu, il les
+    // retrouve par restore ; pas sauvegardé (encore EMPTY, échec d'écriture), il sera regénéré
+    // et doit tout reprendre
+    public synchronized void release(long key) {
+        Target target = loadedTargets.remove(key);
+        if (target == null) return;
+
+        target.generated = false;
+        target.appliedSources.clear();
+        unloadedTargets.put(key, target);
+    }
+
+    // Chunk relu depuis le disque : les sources déjà posées avant sa sauvegarde, à appeler avant take
+    public synchronized void restore(long key, long[] appliedSources) {
+        Target target = getOrCreate(key);
+        for (long source : appliedSources) {
+            target.appliedSources.add(source);
+        }
+    }
+
+    public void keepSent(long source, Map<Long, List<BlockEdit>> editsByTarget) {
+        sentEdits.put(source, editsByTarget);
+    }
+
+    public Map<Long, List<BlockEdit>> takeSent(long source) {
+        Map<Long, List<BlockEdit>> sent = sentEdits.remove(source);
+        return sent != null ? sent : Map.of();
+    }
+
+    public synchronized long[] getAppliedSources(long key) {
+        Target target = loadedTargets.get(key);
+        if (target == null) target = unloadedTargets.get(key);
+        if (target == null) return new long[0];
+        return target.appliedSources.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Thread principal. Un chunk rechargé pas encore généré garde ses éditions en attente : appliquer
+    // deux fois les mêmes blocs ne change rien
+    public void applyLateEdits(ChunkMap chunks) {
+        List<LateEdits> waiting = new ArrayList<>();
+
+        LateEdits late;
+        while ((late = lateEdits.poll()) != null) {
+            Chunk chunk = chunks.get(late.target());
+            if (chunk == null) continue; // Déchargé : take les rendra au rechargement
+
+            if (chunk.getState() == ChunkState.EMPTY) {
+                waiting.add(late);
+                continue;
+            }
+
+            synchronized (this) {
+                Target target = loadedTargets.get(late.target());
+                if (target != null && !target.appliedSources.add(late.source())) continue;
+            }
+
+            apply(chunk, late.edits());
+
+            if (chunk.getState() == ChunkState.MESHED || chunk.getState() == ChunkState.MESHING) {
+                chunk.setState(ChunkState.DIRTY);
+            }
+        }
+
+        lateEdits.addAll(waiting);
+    }
+
+    private Target getOrCreate(long key) {
+        Target target = loadedTargets.get(key);
+        if (target != null) return target;
+        return unloadedTargets.computeIfAbsent(key, k -> new Target());
+    }
+
+    public static void apply(short[] data, List<BlockEdit> edits) {
+        for (BlockEdit edit : edits) {
+            if (edit.replaceAirOnly() && data[edit.index()] != BlockType.AIR.getId()) continue;
+            data[edit.index()] = edit.blockId();
+        }
+    }
+
+    public static void apply(Chunk chunk, List<BlockEdit> edits) {
+        for (BlockEdit edit : edits) {
+            int x = edit.index() % Chunk.SIZE;
+            int z = edit.index() / Chunk.SIZE % Chunk.SIZE;
+            int y = edit.index() / (Chunk.SIZE * Chunk.SIZE);
+
+            if (edit.replaceAirOnly() && chunk.getBlock(x, y, z) != BlockType.AIR.getId()) continue;
+            chunk.setBlock(x, y, z, BlockRegistry.get(edit.blockId()));
+        }
+    }
+}
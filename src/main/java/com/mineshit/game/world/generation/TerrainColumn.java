@@ -0,0 +1,12 @@
+package com.mineshit.game.world.generation;
+
+import com.mineshit.game.world.utils.Chunk;
+
+// Hauteurs du terrain d'une colonne de chunks, indexées x + z * Chunk.SIZE, avec leurs bornes :
+// elles suffisent à classer un chunk entièrement au-dessus ou en dessous de la surface
+public record TerrainColumn(int[] heights, int minHeight, int maxHeight) {
+
+    public int getHeight(int x, int z) {
+        return heights[x + z * Chunk.SIZE];
+    }
+}
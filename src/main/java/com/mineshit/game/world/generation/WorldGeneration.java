@@ -1,33 +1,64 @@
 package com.mineshit.game.world.generation;
 
 import com.mineshit.engine.utils.FaceDirection;
+import com.mineshit.engine.utils.Statistic;
+import com.mineshit.game.world.generation.PendingBlockEdits.ChunkEdits;
+import com.mineshit.game.world.storage.ChunkStorage;
 import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkMap;
 import com.mineshit.game.world.utils.ChunkState;
+import com.mineshit.game.world.utils.ChunkStateIndex;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class WorldGeneration {
 
     private static final int RENDER_DISTANCE = 8;
+    private static final int[] SPHERE_OFFSETS = buildSphereOffsets();
+
+    private static final Path SAVE_DIRECTORY = Path.of("saves", "world");
+    // Chunks déchargés seulement, les chunks chargés gardent leurs blocs reçus sans limite
+    private static final int PENDING_EDITS_CAPACITY = 8192;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(1);
     private final Queue<Chunk> generatedChunks = new ConcurrentLinkedQueue<>();
+    private final ChunkStorage storage = new ChunkStorage(SAVE_DIRECTORY);
+    private final PendingBlockEdits pendingEdits = new PendingBlockEdits(PENDING_EDITS_CAPACITY);
+    private final ChunkGenerationScheduler scheduler = new ChunkGenerationScheduler(generatedChunks, storage, pendingEdits);
+    private final Vector3i lastCameraChunk = new Vector3i(Integer.MIN_VALUE);
 
-    private final Map<Vector3i, Chunk> chunks;
+    private final ChunkMap chunks;
+    private final ChunkStateIndex stateIndex;
 
-    public WorldGeneration(Map<Vector3i, Chunk> chunks) {
+    public WorldGeneration(ChunkMap chunks, ChunkStateIndex stateIndex) {
         this.chunks = chunks;
+        this.stateIndex = stateIndex;
     }
 
     public void update(Vector3f cameraPosition) {
-        removeFarChunks(cameraPosition);
-        generateNewChunks(cameraPosition);
+        Vector3i cameraChunk = getChunkCameraPosition(cameraPosition);
+
+        // La zone chargée ne bouge qu'au changement de chunk de la caméra : seules les coquilles
+        // entrante et sortante entre l'ancienne et la nouvelle sphère sont parcourues
+        if (!cameraChunk.equals(lastCameraChunk)) {
+            boolean firstUpdate = lastCameraChunk.x == Integer.MIN_VALUE;
+            if (!firstUpdate) {
+                removeFarChunks(lastCameraChunk, cameraChunk);
+            }
+            generateNewChunks(firstUpdate ? null : lastCameraChunk, cameraChunk);
+
+            lastCameraChunk.set(cameraChunk);
+            scheduler.reprioritize(cameraChunk);
+        }
+
         flushGeneratedChunks();
+        pendingEdits.applyLateEdits(chunks);
+
+        Statistic.set("Generation Queue", scheduler.getQueueSize());
+        Statistic.set("Pending Saves", storage.getPendingSaveCount());
     }
 
     private Vector3i getChunkCameraPosition(Vector3f cameraPosition) {
@@ -38,67 +69,68 @@ public class WorldGeneration {
         return new Vector3i(camChunkX, camChunkY, camChunkZ);
     }
 
-    private int getSquaredRenderDistance() {
-        return RENDER_DISTANCE * RENDER_DISTANCE;
+    private static boolean isInRange(int x, int y, int z, Vector3i center) {
+        int dx = x - center.x;
+        int dy = y - center.y;
+        int dz = z - center.z;
+        return dx * dx + dy * dy + dz * dz <= RENDER_DISTANCE * RENDER_DISTANCE;
     }
 
-    private void generateNewChunks(Vector3f cameraPosition) {
-        Vector3i chunkCameraPosition = getChunkCameraPosition(cameraPosition);
-
-        List<Vector3i> chunksToGenerate = new ArrayList<>();
-
+    // Offsets de la sphère, du plus proche au plus lointain : parcourus depuis le centre, ils donnent l'ordre de génération
+    private static int[] buildSphereOffsets() {
+        List<int[]> offsets = new ArrayList<>();
         for (int dx = -RENDER_DISTANCE; dx <= RENDER_DISTANCE; dx++) {
             for (int dy = -RENDER_DISTANCE; dy <= RENDER_DISTANCE; dy++) {
                 for (int dz = -RENDER_DISTANCE; dz <= RENDER_DISTANCE; dz++) {
-                    int distSq = dx * dx + dy * dy + dz * dz;
-                    if (distSq > getSquaredRenderDistance()) continue;
-
-                    Vector3i pos = new Vector3i(chunkCameraPosition.x + dx, chunkCameraPosition.y + dy, chunkCameraPosition.z + dz);
-                    if (chunks.containsKey(pos)) continue;
-
-                    chunksToGenerate.add(pos);
+                    if (dx * dx + dy * dy + dz * dz > RENDER_DISTANCE * RENDER_DISTANCE) continue;
+                    offsets.add(new int[]{dx, dy, dz});
                 }
             }
         }
+        offsets.sort(Comparator.comparingInt(o -> o[0] * o[0] + o[1] * o[1] + o[2] * o[2]));
 
-        chunksToGenerate.sort(Comparator.comparingLong(pos ->
-                pos.distanceSquared(chunkCameraPosition)
-        ));
-
-        for (Vector3i pos : chunksToGenerate) {
-            Chunk placeholder = new Chunk(pos);
-            placeholder.setState(ChunkState.EMPTY);
-            chunks.put(pos, placeholder);
-
-            executor.submit(() -> {
-                GenerationEngine.generateChunkData(placeholder);
-                placeholder.setState(ChunkState.GENERATED);
-                generatedChunks.add(placeholder);
-            });
+        int[] flat = new int[offsets.size() * 3];
+        for (int i = 0; i < offsets.size(); i++) {
+            System.arraycopy(offsets.get(i), 0, flat, i * 3, 3);
         }
+        return flat;
     }
 
+    // previousCenter à null : toute la sphère est à charger
+    private void generateNewChunks(Vector3i previousCenter, Vector3i center) {
+        for (int i = 0; i < SPHERE_OFFSETS.length; i += 3) {
+            int x = center.x + SPHERE_OFFSETS[i];
+            int y = center.y + SPHERE_OFFSETS[i + 1];
+            int z = center.z + SPHERE_OFFSETS[i + 2];
 
+            if (previousCenter != null && isInRange(x, y, z, previousCenter)) continue;
+            if (chunks.contains(x, y, z)) continue;
 
-    private void removeFarChunks(Vector3f cameraPosition) {
-        Vector3i chunkCameraPosition = getChunkCameraPosition(cameraPosition);
+            Chunk placeholder = new Chunk(new Vector3i(x, y, z), stateIndex);
+            chunks.put(placeholder);
 
-        Iterator<Map.Entry<Vector3i, Chunk>> iterator = chunks.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<Vector3i, Chunk> entry = iterator.next();
-            Vector3i chunkPos = entry.getKey();
+            scheduler.submit(placeholder, center);
+        }
+    }
 
-            int dx = chunkPos.x - chunkCameraPosition.x;
-            int dy = chunkPos.y - chunkCameraPosition.y;
-            int dz = chunkPos.z - chunkCameraPosition.z;
-            int distSq = dx * dx + dy * dy + dz * dz;
+    private void removeFarChunks(Vector3i previousCenter, Vector3i center) {
+        for (int i = 0; i < SPHERE_OFFSETS.length; i += 3) {
+            int x = previousCenter.x + SPHERE_OFFSETS[i];
+            int y = previousCenter.y + SPHERE_OFFSETS[i + 1];
+            int z = previousCenter.z + SPHERE_OFFSETS[i + 2];
 
-            if (distSq > getSquaredRenderDistance()) {
-                Chunk chunk = entry.getValue();
-                if (chunk != null) {
-                    chunk.setState(ChunkState.DELETED);
+            if (isInRange(x, y, z, center)) continue;
+
+            Chunk chunk = chunks.remove(x, y, z);
+            if (chunk != null) {
+                // Encore EMPTY : pas généré, ou un worker est en train de le remplir
+                boolean generated = chunk.getState() != ChunkState.EMPTY;
+                chunk.setState(ChunkState.DELETED);
+
+                ChunkEdits edits = GenerationEngine.takeChunkEdits(chunk, pendingEdits);
+                if (generated) {
+                    storage.saveAsync(chunk, edits);
                 }
-                iterator.remove();
             }
         }
     }
@@ -109,17 +141,25 @@ public class WorldGeneration {
             Vector3i pos = chunk.getPosition();
 
             for (FaceDirection dir : FaceDirection.values()) {
-                Vector3i neighborPos = new Vector3i(pos).add(dir.getOffset());
-                Chunk neighbor = chunks.get(neighborPos);
-                if (neighbor != null) {
+                Chunk neighbor = chunks.get(pos.x + dir.getOffsetX(), pos.y + dir.getOffsetY(), pos.z + dir.getOffsetZ());
+                // Les voisins pas encore générés seront meshés avec ce chunk déjà présent
+                if (neighbor != null && (neighbor.getState() == ChunkState.MESHED || neighbor.getState() == ChunkState.MESHING)) {
                     neighbor.setState(ChunkState.DIRTY);
                 }
             }
         }
     }
 
+    // Les workers arrêtés, les chunks chargés sont sauvegardés avec les déchargés encore en file
     public void cleanup() {
-        executor.shutdownNow();
+        scheduler.cleanup();
+
+        chunks.forEach(chunk -> {
+            if (chunk.getState() != ChunkState.EMPTY && chunk.getState() != ChunkState.DELETED) {
+                storage.saveAsync(chunk, GenerationEngine.takeChunkEdits(chunk, pendingEdits));
+            }
+        });
+        storage.close();
     }
 
 }
\ No newline at end of file
@@ -3,4 +3,5 @@ package com.mineshit.game.world.interaction;
 import com.mineshit.engine.utils.FaceDirection;
 import org.joml.Vector3i;
 
-public record HitResult(Vector3i blockPos, FaceDirection hitFace) {}
+// distance : le long du rayon, de l'origine à l'entrée dans le bloc par hitFace
+public record HitResult(Vector3i blockPos, FaceDirection hitFace, float distance) {}
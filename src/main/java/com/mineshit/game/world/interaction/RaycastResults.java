@@ -0,0 +1,85 @@
+package com.mineshit.game.world.interaction;
+
+import com.mineshit.engine.utils.FaceDirection;
+import org.joml.Vector3i;
+
+// Résultats d'un lot de rayons en structure de tableaux, indexés comme les rayons du lot.
+// Alloué une fois et réutilisé d'un tick à l'autre ; chaque lancer réécrit les count premières entrées.
+public class RaycastResults {
+
+    private static final FaceDirection[] FACES = FaceDirection.values();
+
+    private final int capacity;
+
+    final boolean[] hit;
+    final int[] blockX;
+    final int[] blockY;
+    final int[] blockZ;
+    final byte[] face;
+    final float[] distance;
+
+    // Ordre de parcours, rayons regroupés par chunk d'origine : clé de chunk tronquée << 27 | index du rayon
+    final long[] order;
+
+    public RaycastResults(int capacity) {
+        if (capacity > VoxelRaycast.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Raycast batch capacity must not exceed " + VoxelRaycast.MAX_BATCH_SIZE + ".");
+        }
+
+        this.capacity = capacity;
+        this.hit = new boolean[capacity];
+        this.blockX = new int[capacity];
+        this.blockY = new int[capacity];
+        this.blockZ = new int[capacity];
+        this.face = new byte[capacity];
+        this.distance = new float[capacity];
+        this.order = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isHit(int ray) {
+        return hit[ray];
+    }
+
+    public int getBlockX(int ray) {
+        return blockX[ray];
+    }
+
+    public int getBlockY(int ray) {
+        return blockY[ray];
+    }
+
+    public int getBlockZ(int ray) {
+        return blockZ[ray];
+    }
+
+    public FaceDirection getHitFace(int ray) {
+        return FACES[face[ray]];
+    }
+
+    // Distance de l'origine à l'entrée dans le bloc touché
+    public float getDistance(int ray) {
+        return distance[ray];
+    }
+
+    public HitResult toHitResult(int ray) {
+        if (!hit[ray]) return null;
+        return new HitResult(new Vector3i(blockX[ray], blockY[ray], blockZ[ray]), getHitFace(ray), distance[ray]);
+    }
+
+    void setHit(int ray, int x, int y, int z, FaceDirection hitFace, float hitDistance) {
+        hit[ray] = true;
+        blockX[ray] = x;
+        blockY[ray] = y;
+        blockZ[ray] = z;
+        face[ray] = (byte) hitFace.ordinal();
+        distance[ray] = hitDistance;
+    }
+
+    void setMiss(int ray) {
+        hit[ray] = false;
+    }
+}
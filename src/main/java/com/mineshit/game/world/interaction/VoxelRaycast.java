@@ -0,0 +1,155 @@
+package com.mineshit.game.world.interaction;
+
+import com.mineshit.engine.utils.FaceDirection;
+import com.mineshit.game.world.ChunkCursor;
+import com.mineshit.game.world.World;
+import com.mineshit.game.world.utils.BlockType;
+import com.mineshit.game.world.utils.Chunk;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Parcours de voxels d'Amanatides et Woo : chaque bloc traversé par le rayon est visité une seule fois,
+// y compris aux coins, pour un coût proportionnel au nombre de blocs traversés et non à la distance / pas.
+// Le chunk courant est gardé tant que le rayon y reste (ChunkCursor). La ChunkMap n'étant pas thread-safe,
+// le thread principal attend la fin de chaque lancer.
+public final class VoxelRaycast {
+
+    // L'index du rayon tient sur les 27 bits bas de la clé de tri
+    static final int MAX_BATCH_SIZE = 1 << 27;
+    private static final int INDEX_BITS = 27;
+    // Rayons par tâche en parallèle : chaque tâche garde son propre chunk courant
+    private static final int SEGMENT_SIZE = 256;
+
+    private VoxelRaycast() {
+    }
+
+    public static HitResult cast(World world, Vector3f origin, Vector3f direction, float maxDistance) {
+        return cast(world, origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, maxDistance);
+    }
+
+    // Premier bloc non vide après le bloc de départ, avec la face d'entrée et la distance depuis l'origine.
+    // La direction n'a pas besoin d'être normalisée. null si rien n'est touché avant maxDistance.
+    public static HitResult cast(World world, float originX, float originY, float originZ,
+                                 float dirX, float dirY, float dirZ, float maxDistance) {
+        checkMaxDistance(maxDistance);
+        RaycastResults results = new RaycastResults(1);
+        trace(new ChunkCursor(world), originX, originY, originZ, dirX, dirY, dirZ, maxDistance, results, 0);
+        return results.toHitResult(0);
+    }
+
+    // Origines et directions xyz entrelacées (3 * count valeurs). Les rayons sont regroupés par chunk d'origine
+    // pour que les rayons voisins réutilisent le même chunk courant, puis découpés en tâches si parallel.
+    // Un rayon d'origine ou de direction non finie est un raté.
+    public static void castBatch(World world, float[] origins, float[] directions, int count, float maxDistance,
+                                 RaycastResults results, boolean parallel) {
+        checkMaxDistance(maxDistance);
+        if (count > results.getCapacity()) {
+            throw new IllegalArgumentException("Raycast batch of " + count + " rays exceeds result capacity " + results.getCapacity() + ".");
+        }
+        if (origins.length < count * 3 || directions.length < count * 3) {
+            throw new IllegalArgumentException("Origins and directions must contain 3 values per ray.");
+        }
+
+        long[] order = results.order;
+        for (int ray = 0; ray < count; ray++) {
+            int chunkX = Math.floorDiv((int) Math.floor(origins[ray * 3]), Chunk.SIZE);
+            int chunkY = Math.floorDiv((int) Math.floor(origins[ray * 3 + 1]), Chunk.SIZE);
+            int chunkZ = Math.floorDiv((int) Math.floor(origins[ray * 3 + 2]), Chunk.SIZE);
+            order[ray] = (groupKey(chunkX, chunkY, chunkZ) << INDEX_BITS) | ray;
+        }
+        Arrays.sort(order, 0, count);
+
+        int segments = (count + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        IntStream range = IntStream.range(0, segments);
+        (parallel ? range.parallel() : range).forEach(segment -> {
+            ChunkCursor cursor = new ChunkCursor(world);
+            int end = Math.min(count, (segment + 1) * SEGMENT_SIZE);
+
+            for (int i = segment * SEGMENT_SIZE; i < end; i++) {
+                int ray = (int) (order[i] & ((1L << INDEX_BITS) - 1));
+                trace(cursor, origins[ray * 3], origins[ray * 3 + 1], origins[ray * 3 + 2],
+                        directions[ray * 3], directions[ray * 3 + 1], directions[ray * 3 + 2], maxDistance, results, ray);
+            }
+        });
+    }
+
+    private static void trace(ChunkCursor cursor, float originX, float originY, float originZ,
+                              float dirX, float dirY, float dirZ, float maxDistance, RaycastResults results, int ray) {
+        results.setMiss(ray);
+
+        // Avec un NaN toutes les comparaisons sont fausses : le parcours ne s'arrêterait jamais
+        if (!Float.isFinite(originX) || !Float.isFinite(originY) || !Float.isFinite(originZ)) return;
+
+        float length = (float) Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        if (length == 0 || !Float.isFinite(length)) return;
+        dirX /= length;
+        dirY /= length;
+        dirZ /= length;
+
+        int x = (int) Math.floor(originX);
+        int y = (int) Math.floor(originY);
+        int z = (int) Math.floor(originZ);
+
+        int stepX = (int) Math.signum(dirX);
+        int stepY = (int) Math.signum(dirY);
+        int stepZ = (int) Math.signum(dirZ);
+
+        // Distance le long du rayon pour traverser un bloc entier sur chaque axe, puis jusqu'à la prochaine frontière
+        float deltaX = stepX != 0 ? Math.abs(1 / dirX) : Float.POSITIVE_INFINITY;
+        float deltaY = stepY != 0 ? Math.abs(1 / dirY) : Float.POSITIVE_INFINITY;
+        float deltaZ = stepZ != 0 ? Math.abs(1 / dirZ) : Float.POSITIVE_INFINITY;
+
+        float maxX = boundaryDistance(originX, x, stepX, deltaX);
+        float maxY = boundaryDistance(originY, y, stepY, deltaY);
+        float maxZ = boundaryDistance(originZ, z, stepZ, deltaZ);
+
+        while (true) {
+            float distance;
+            FaceDirection face;
+
+            if (maxX <= maxY && maxX <= maxZ) {
+                distance = maxX;
+                x += stepX;
+                maxX += deltaX;
+                face = stepX > 0 ? FaceDirection.LEFT : FaceDirection.RIGHT;
+            } else if (maxY <= maxZ) {
+                distance = maxY;
+                y += stepY;
+                maxY += deltaY;
+                face = stepY > 0 ? FaceDirection.BOTTOM : FaceDirection.TOP;
+            } else {
+                distance = maxZ;
+                z += stepZ;
+                maxZ += deltaZ;
+                face = stepZ > 0 ? FaceDirection.BACK : FaceDirection.FRONT;
+            }
+
+            if (distance > maxDistance) return;
+
+            if (cursor.getBlock(x, y, z) != BlockType.AIR.getId()) {
+                results.setHit(ray, x, y, z, face, distance);
+                return;
+            }
+        }
+    }
+
+    // Le parcours ne s'arrête sur un raté qu'une fois maxDistance dépassée
+    private static void checkMaxDistance(float maxDistance) {
+        if (!Float.isFinite(maxDistance) || maxDistance <= 0) {
+            throw new IllegalArgumentException("Raycast max distance must be finite and positive: " + maxDistance);
+        }
+    }
+
+    private static float boundaryDistance(float origin, int block, int step, float delta) {
+        if (step > 0) return (block + 1 - origin) * delta;
+        if (step < 0) return (origin - block) * delta;
+        return Float.POSITIVE_INFINITY;
+    }
+
+    // 12 bits par axe : deux chunks éloignés peuvent partager un groupe, ce qui ne coûte qu'un changement de chunk
+    private static long groupKey(int chunkX, int chunkY, int chunkZ) {
+        return ((long) (chunkX & 0xFFF) << 24) | ((long) (chunkY & 0xFFF) << 12) | (chunkZ & 0xFFF);
+    }
+}
@@ -2,7 +2,6 @@ package com.mineshit.game.world.interaction;
 
 import com.mineshit.engine.graphics.Camera;
 import com.mineshit.engine.input.InputManager;
-import com.mineshit.engine.utils.FaceDirection;
 import com.mineshit.engine.utils.Statistic;
 import com.mineshit.game.player.PlayerController;
 import com.mineshit.game.world.World;
@@ -76,53 +75,7 @@ public class WorldInteraction {
 
 
     public static HitResult raycast(World world, Camera camera) {
-        Vector3f origin = new Vector3f(camera.getPosition());
-        Vector3f direction = new Vector3f(camera.getForward()).normalize();
-
-        float step = 0.01f;
-
-        Vector3f currentPos = new Vector3f(origin);
-        Vector3i lastBlock = new Vector3i(
-                (int) Math.floor(currentPos.x),
-                (int) Math.floor(currentPos.y),
-                (int) Math.floor(currentPos.z)
-        );
-
-        for (float t = 0; t < RANGE; t += step) {
-            currentPos.fma(step, direction);
-
-            int x = (int) Math.floor(currentPos.x);
-            int y = (int) Math.floor(currentPos.y);
-            int z = (int) Math.floor(currentPos.z);
-            Vector3i currentBlock = new Vector3i(x, y, z);
-
-            if (!currentBlock.equals(lastBlock)) {
-                Chunk chunk = world.getChunkAt(currentPos);
-                if (chunk == null) {
-                    lastBlock.set(currentBlock);
-                    continue;
-                }
-
-                short block = chunk.getBlockAtWorld(x, y, z);
-                if (block != 0) {
-                    Vector3i delta = new Vector3i(currentBlock).sub(lastBlock);
-
-                    FaceDirection face = null;
-                    for (FaceDirection dir : FaceDirection.values()) {
-                        if (dir.getOffset().equals(delta)) {
-                            face = dir.getOpposite();
-                            break;
-                        }
-                    }
-
-                    return new HitResult(currentBlock, face);
-                }
-
-                lastBlock.set(currentBlock);
-            }
-        }
-
-        return null;
+        return VoxelRaycast.cast(world, camera.getPosition(), camera.getForward(), RANGE);
     }
 
 
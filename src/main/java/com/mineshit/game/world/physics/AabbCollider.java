@@ -0,0 +1,140 @@
+package com.mineshit.game.world.physics;
+
+import com.mineshit.game.world.ChunkCursor;
+import com.mineshit.game.world.utils.BlockRegistry;
+import com.mineshit.game.world.utils.BlockType;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+// Collision d'une boîte alignée sur les axes (centre en x/z, pieds en y) contre les blocs pleins (densité >= 1).
+// Les blocs du volume balayé par le déplacement sont lus une seule fois, puis le déplacement est borné axe par
+// axe (y, x puis z) : pas de traversée de mur quelle que soit la vitesse, et glissement le long des parois.
+// Les blocs de densité entre 0 et 1 (eau, feuillage...) ralentissent le déplacement du facteur 1 - densité.
+// Une instance garde ses tableaux de travail : une par thread, réutilisée d'un déplacement à l'autre.
+public class AabbCollider {
+
+    // Marge des tests de chevauchement : une boîte posée exactement sur un bloc ne le touche pas de côté
+    private static final float EPSILON = 1e-4f;
+
+    private int[] solids = new int[3 * 64];
+    private int solidCount;
+
+    @Getter
+    private float resultX, resultY, resultZ;
+    @Getter
+    private boolean collidedX, collidedY, collidedZ;
+
+    public void move(ChunkCursor cursor, float x, float y, float z, float radius, float height, float dx, float dy, float dz) {
+        float minX = x - radius, maxX = x + radius;
+        float minY = y, maxY = y + height;
+        float minZ = z - radius, maxZ = z + radius;
+
+        float density = collect(cursor,
+                Math.min(minX, minX + dx), Math.min(minY, minY + dy), Math.min(minZ, minZ + dz),
+                Math.max(maxX, maxX + dx), Math.max(maxY, maxY + dy), Math.max(maxZ, maxZ + dz));
+
+        float slow = 1.0f - density;
+        dx *= slow;
+        dy *= slow;
+        dz *= slow;
+
+        float clippedY = clipY(dy, minX, minY, minZ, maxX, maxY, maxZ);
+        minY += clippedY;
+        maxY += clippedY;
+
+        float clippedX = clipX(dx, minX, minY, minZ, maxX, maxY, maxZ);
+        minX += clippedX;
+        maxX += clippedX;
+
+        float clippedZ = clipZ(dz, minX, minY, minZ, maxX, maxY, maxZ);
+
+        resultX = x + clippedX;
+        resultY = y + clippedY;
+        resultZ = z + clippedZ;
+        collidedX = clippedX != dx;
+        collidedY = clippedY != dy;
+        collidedZ = clippedZ != dz;
+    }
+
+    // Blocs pleins du volume dans solids, renvoie la plus forte densité des blocs traversables
+    private float collect(ChunkCursor cursor, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int startX = (int) Math.floor(minX), endX = (int) Math.ceil(maxX);
+        int startY = (int) Math.floor(minY), endY = (int) Math.ceil(maxY);
+        int startZ = (int) Math.floor(minZ), endZ = (int) Math.ceil(maxZ);
+
+        solidCount = 0;
+        float maxDensity = 0.0f;
+
+        for (int bx = startX; bx < endX; bx++) {
+            for (int by = startY; by < endY; by++) {
+                for (int bz = startZ; bz < endZ; bz++) {
+                    short id = cursor.getBlock(bx, by, bz);
+                    if (id == BlockType.AIR.getId()) continue;
+
+                    float density = BlockRegistry.getDensity(id);
+                    if (density >= 1.0f) {
+                        addSolid(bx, by, bz);
+                    } else {
+                        maxDensity = Math.max(maxDensity, density);
+                    }
+                }
+            }
+        }
+
+        return maxDensity;
+    }
+
+    private void addSolid(int x, int y, int z) {
+        if (solidCount * 3 == solids.length) {
+            solids = Arrays.copyOf(solids, solids.length * 2);
+        }
+        solids[solidCount * 3] = x;
+        solids[solidCount * 3 + 1] = y;
+        solids[solidCount * 3 + 2] = z;
+        solidCount++;
+    }
+
+    // Pour chaque axe : seuls les blocs qui chevauchent la boîte sur les deux autres axes la bornent
+    private float clipY(float dy, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < solidCount * 3; i += 3) {
+            int bx = solids[i], by = solids[i + 1], bz = solids[i + 2];
+            if (!overlaps(bx, minX, maxX) || !overlaps(bz, minZ, maxZ)) continue;
+            dy = clip(dy, by, minY, maxY);
+        }
+        return dy;
+    }
+
+    private float clipX(float dx, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < solidCount * 3; i += 3) {
+            int bx = solids[i], by = solids[i + 1], bz = solids[i + 2];
+            if (!overlaps(by, minY, maxY) || !overlaps(bz, minZ, maxZ)) continue;
+            dx = clip(dx, bx, minX, maxX);
+        }
+        return dx;
+    }
+
+    private float clipZ(float dz, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < solidCount * 3; i += 3) {
+            int bx = solids[i], by = solids[i + 1], bz = solids[i + 2];
+            if (!overlaps(bx, minX, maxX) || !overlaps(by, minY, maxY)) continue;
+            dz = clip(dz, bz, minZ, maxZ);
+        }
+        return dz;
+    }
+
+    private static boolean overlaps(int block, float min, float max) {
+        return block + 1 > min + EPSILON && block < max - EPSILON;
+    }
+
+    // Déplacement d le long d'un axe borné par le bloc [block, block + 1] s'il est devant la boîte [min, max]
+    private static float clip(float d, int block, float min, float max) {
+        if (d > 0 && max <= block + EPSILON) {
+            return Math.min(d, block - max);
+        }
+        if (d < 0 && min >= block + 1 - EPSILON) {
+            return Math.max(d, block + 1 - min);
+        }
+        return d;
+    }
+}
@@ -0,0 +1,241 @@
+package com.mineshit.game.world.storage;
+
+import com.mineshit.game.world.generation.PendingBlockEdits.BlockEdit;
+import com.mineshit.game.world.generation.PendingBlockEdits.ChunkEdits;
+import com.mineshit.game.world.utils.BlockRegistry;
+import com.mineshit.game.world.utils.BlockType;
+import com.mineshit.game.world.utils.Chunk;
+import com.mineshit.game.world.utils.ChunkMap;
+import org.joml.Vector3i;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Sauvegarde des chunks dans des RegionFile. Les chunks déchargés sont écrits par un thread dédié : le thread
+// principal ne fait que les mettre en file. Un chunk en attente d'écriture est relu depuis la mémoire, un
+// worker de génération qui le recharge entre-temps ne lit donc jamais une version périmée.
+// Enregistrement : ChunkEdits (sources déjà posées, puis blocs envoyés par cible) suivi de Chunk.serialize.
+// Relire un chunk ne demande ainsi ni bruit ni biome.
+public class ChunkStorage {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkStorage.class);
+
+    // Index, id et replaceAirOnly
+    private static final int EDIT_BYTES = Integer.BYTES + Short.BYTES + 1;
+
+    private record PendingSave(Chunk chunk, ChunkEdits edits) {
+    }
+
+    // Fin de file pour le thread d'écriture
+    private static final PendingSave STOP = new PendingSave(null, null);
+
+    private final Path directory;
+    private final Map<Long, RegionFile> regions = new ConcurrentHashMap<>();
+    private final Map<Long, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingSave> saveQueue = new LinkedBlockingQueue<>();
+    private final Thread saver;
+
+    public ChunkStorage(Path directory) {
+        this.directory = directory;
+
+        saver = new Thread(this::saveLoop, "chunk-saver");
+        saver.setDaemon(true);
+        saver.start();
+    }
+
+    // Thread principal, chunk déjà retiré de la ChunkMap : il ne sera plus modifié. Un chunk uniforme n'a jamais
+    // été édité (setBlock le sort du mode uniforme) : regénéré à l'identique, il n'occupe pas un secteur
+    public void saveAsync(Chunk chunk, ChunkEdits edits) {
+        if (!chunk.isUnsaved() || chunk.isUniform()) return;
+
+        PendingSave save = new PendingSave(chunk, edits);
+        pendingSaves.put(getKey(chunk), save);
+        saveQueue.add(save);
+    }
+
+    // Remplit chunk depuis sa sauvegarde et renvoie ses éditions, null s'il n'a jamais été sauvegardé ou si
+    // l'enregistrement est illisible : le chunk est alors regénéré plutôt que de rester un trou dans le monde
+    public ChunkEdits load(Chunk chunk) {
+        PendingSave pending = pendingSaves.get(getKey(chunk));
+        if (pending != null) {
+            ByteBuffer copy = ByteBuffer.allocate(pending.chunk().getSerializedSize());
+            pending.chunk().serialize(copy);
+            chunk.deserialize(copy.flip());
+            return pending.edits();
+        }
+
+        try {
+            Vector3i position = chunk.getPosition();
+            RegionFile region = getRegion(position, false);
+            if (region == null) return null;
+
+            ByteBuffer record = region.read(getLocalIndex(position));
+            if (record == null) return null;
+
+            ChunkEdits edits = readEdits(record);
+            chunk.deserialize(record);
+            return edits;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Loading failed for chunk {}", chunk.getPosition(), e);
+            chunk.fillChunk(BlockType.AIR);
+            return null;
+        }
+    }
+
+    public int getPendingSaveCount() {
+        return pendingSaves.size();
+    }
+
+    // Attend l'écriture des sauvegardes en file puis ferme les régions
+    public void close() {
+        saveQueue.add(STOP);
+        try {
+            saver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (RegionFile region : regions.values()) {
+            try {
+                region.close();
+            } catch (IOException e) {
+                LOGGER.warn("Closing region file failed", e);
+            }
+        }
+        regions.clear();
+    }
+
+    private void saveLoop() {
+        while (true) {
+            PendingSave save;
+            try {
+                save = saveQueue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (save == STOP) return;
+
+            Chunk chunk = save.chunk();
+            try {
+                Vector3i position = chunk.getPosition();
+                int length = getEditsSize(save.edits()) + chunk.getSerializedSize();
+
+                getRegion(position, true).write(getLocalIndex(position), length, record -> {
+                    writeEdits(record, save.edits());
+                    chunk.serialize(record);
+                });
+                chunk.markSaved();
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.warn("Saving failed for chunk {}", chunk.getPosition(), e);
+            }
+
+            // Une sauvegarde plus récente du même chunk reste en attente
+            pendingSaves.remove(getKey(chunk), save);
+        }
+    }
+
+    private static int getEditsSize(ChunkEdits edits) {
+        int size = Integer.BYTES + edits.appliedSources().length * Long.BYTES + Integer.BYTES;
+        for (List<BlockEdit> targetEdits : edits.sent().values()) {
+            size += Long.BYTES + Integer.BYTES + targetEdits.size() * EDIT_BYTES;
+        }
+        return size;
+    }
+
+    private static void writeEdits(ByteBuffer record, ChunkEdits edits) {
+        record.putInt(edits.appliedSources().length);
+        for (long source : edits.appliedSources()) {
+            record.putLong(source);
+        }
+
+        record.putInt(edits.sent().size());
+        for (Map.Entry<Long, List<BlockEdit>> entry : edits.sent().entrySet()) {
+            record.putLong(entry.getKey());
+            record.putInt(entry.getValue().size());
+            for (BlockEdit edit : entry.getValue()) {
+                record.putInt(edit.index());
+                record.putShort(edit.blockId());
+                record.put((byte) (edit.replaceAirOnly() ? 1 : 0));
+            }
+        }
+    }
+
+    // Comptes bornés par la taille de l'enregistrement, index et ids vérifiés : une édition invalide ferait
+    // échouer la génération du chunk voisin qui la reçoit
+    private static ChunkEdits readEdits(ByteBuffer record) {
+        long[] appliedSources = new long[readCount(record, Long.BYTES)];
+        for (int i = 0; i < appliedSources.length; i++) {
+            appliedSources[i] = record.getLong();
+        }
+
+        int targetCount = readCount(record, Long.BYTES + Integer.BYTES);
+        Map<Long, List<BlockEdit>> sent = new HashMap<>(targetCount * 2);
+        for (int t = 0; t < targetCount; t++) {
+            long target = record.getLong();
+            int count = readCount(record, EDIT_BYTES);
+            List<BlockEdit> targetEdits = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                BlockEdit edit = new BlockEdit(record.getInt(), record.getShort(), record.get() == 1);
+                if (edit.index() < 0 || edit.index() >= Chunk.TOTAL_BLOCKS || !BlockRegistry.isValid(edit.blockId())) {
+                    throw new IllegalArgumentException("Invalid block edit in chunk record: " + edit);
+                }
+                targetEdits.add(edit);
+            }
+            sent.put(target, targetEdits);
+        }
+
+        return new ChunkEdits(appliedSources, sent);
+    }
+
+    private static int readCount(ByteBuffer record, int entryBytes) {
+        int count = record.getInt();
+        if (count < 0 || count > record.remaining() / entryBytes) {
+            throw new IllegalArgumentException("Invalid count in chunk record: " + count);
+        }
+        return count;
+    }
+
+    // Sans create, null si la région n'existe pas encore : explorer ne crée pas de fichiers vides
+    private RegionFile getRegion(Vector3i position, boolean create) throws IOException {
+        int regionX = Math.floorDiv(position.x, RegionFile.SIZE);
+        int regionY = Math.floorDiv(position.y, RegionFile.SIZE);
+        int regionZ = Math.floorDiv(position.z, RegionFile.SIZE);
+        long key = ChunkMap.pack(regionX, regionY, regionZ);
+
+        RegionFile region = regions.get(key);
+        if (region != null) return region;
+
+        Path path = directory.resolve("r." + regionX + "." + regionY + "." + regionZ + ".region");
+        if (!create && !Files.exists(path)) return null;
+
+        return regions.computeIfAbsent(key, k -> {
+            try {
+                Files.createDirectories(directory);
+                return new RegionFile(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static int getLocalIndex(Vector3i position) {
+        return RegionFile.getIndex(Math.floorMod(position.x, RegionFile.SIZE), Math.floorMod(position.y, RegionFile.SIZE),
+                Math.floorMod(position.z, RegionFile.SIZE));
+    }
+
+    private static long getKey(Chunk chunk) {
+        Vector3i position = chunk.getPosition();
+        return ChunkMap.pack(position.x, position.y, position.z);
+    }
+}
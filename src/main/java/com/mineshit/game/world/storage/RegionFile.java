@@ -0,0 +1,106 @@
+package com.mineshit.game.world.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Un fichier de SIZE³ chunks projeté en mémoire. En-tête fixe : par chunk, secteur de début et longueur en
+// octets (0 si absent), puis les enregistrements alignés sur des secteurs de SECTOR_SIZE octets. Un chunk
+// réécrit garde ses secteurs s'il y tient, sinon il est ajouté en fin de fichier (pas de compactage).
+// Les pages écrites sont renvoyées sur disque par le système, force() seulement à la fermeture.
+public class RegionFile {
+
+    public static final int SIZE = 8;
+    public static final int CHUNK_COUNT = SIZE * SIZE * SIZE;
+
+    private static final int SECTOR_SIZE = 4096;
+    private static final int HEADER_SIZE = CHUNK_COUNT * 2 * Integer.BYTES;
+    private static final int HEADER_SECTORS = (HEADER_SIZE + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    private static final int INITIAL_CAPACITY = 64 * SECTOR_SIZE;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int usedSectors;
+
+    public RegionFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), INITIAL_CAPACITY));
+
+        usedSectors = HEADER_SECTORS;
+        for (int index = 0; index < CHUNK_COUNT; index++) {
+            int length = getLength(index);
+            if (length > 0) {
+                usedSectors = Math.max(usedSectors, getSector(index) + getSectorCount(length));
+            }
+        }
+    }
+
+    // Index du chunk dans la région, coordonnées locales dans [0, SIZE)
+    public static int getIndex(int x, int y, int z) {
+        return x + z * SIZE + y * SIZE * SIZE;
+    }
+
+    // Vue sur l'enregistrement, null si absent. Elle reste valide après un agrandissement (l'ancienne projection
+    // n'est libérée qu'au GC) ; ses secteurs ne sont réécrits que par une nouvelle sauvegarde du même chunk
+    public synchronized ByteBuffer read(int index) {
+        int length = getLength(index);
+        if (length == 0) return null;
+        return buffer.slice(getSector(index) * SECTOR_SIZE, length);
+    }
+
+    // writer remplit exactement length octets, directement dans la projection
+    public synchronized void write(int index, int length, Consumer<ByteBuffer> writer) throws IOException {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Record length must be positive: " + length);
+        }
+
+        int sectorCount = getSectorCount(length);
+        int previousLength = getLength(index);
+
+        int sector;
+        if (previousLength > 0 && getSectorCount(previousLength) >= sectorCount) {
+            sector = getSector(index);
+        } else {
+            sector = usedSectors;
+            usedSectors += sectorCount;
+            ensureCapacity((long) usedSectors * SECTOR_SIZE);
+        }
+
+        writer.accept(buffer.slice(sector * SECTOR_SIZE, length));
+
+        // Données d'abord, en-tête ensuite : un arrêt entre les deux laisse l'ancien enregistrement lisible
+        buffer.putInt(index * 2 * Integer.BYTES, sector);
+        buffer.putInt(index * 2 * Integer.BYTES + Integer.BYTES, length);
+    }
+
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        if (required <= buffer.capacity()) return;
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException("Region file too large: " + required + " bytes");
+        }
+
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(Integer.MAX_VALUE, Math.max(required, buffer.capacity() * 2L)));
+    }
+
+    private int getSector(int index) {
+        return buffer.getInt(index * 2 * Integer.BYTES);
+    }
+
+    private int getLength(int index) {
+        return buffer.getInt(index * 2 * Integer.BYTES + Integer.BYTES);
+    }
+
+    private static int getSectorCount(int length) {
+        return (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mineshit.game.world.utils;
+
+// Propriétés des blocs indexées par id (ordinal de BlockType), calculées une fois au chargement.
+// La visibilité des faces est une table [bloc][voisin] aplatie : le mesher fait une seule lecture par face.
+public class BlockRegistry {
+
+    public static final BlockType[] BLOCKS = BlockType.values();
+    public static final int COUNT = BLOCKS.length;
+
+    private static final float[] DENSITY = new float[COUNT];
+    private static final boolean[] CROSS = new boolean[COUNT];
+    private static final boolean[] TRANSPARENT = new boolean[COUNT];
+    private static final boolean[] FACE_VISIBLE = new boolean[COUNT * COUNT];
+
+    static {
+        for (BlockType block : BLOCKS) {
+            int id = block.getId();
+            DENSITY[id] = block.getDensity();
+            CROSS[id] = block.getMeshType() == MeshType.CROSS;
+            TRANSPARENT[id] = block.getTransparencyType() == TransparencyType.TRANSLUCENT
+                    || block.getTransparencyType() == TransparencyType.TRANSPARENT;
+
+            for (BlockType neighbor : BLOCKS) {
+                FACE_VISIBLE[id * COUNT + neighbor.getId()] = !shouldCullFace(block, neighbor);
+            }
+        }
+    }
+
+    public static BlockType get(short id) {
+        return BLOCKS[id];
+    }
+
+    // Id relu depuis le disque
+    public static boolean isValid(int id) {
+        return id >= 0 && id < COUNT;
+    }
+
+    public static float getDensity(short id) {
+        return DENSITY[id];
+    }
+
+    public static boolean isCross(short id) {
+        return CROSS[id];
+    }
+
+    // Meshé dans la passe transparente
+    public static boolean isTransparent(short id) {
+        return TRANSPARENT[id];
+    }
+
+    public static boolean isFaceVisible(short block, short neighbor) {
+        return FACE_VISIBLE[block * COUNT + neighbor];
+    }
+
+    private static boolean shouldCullFace(BlockType current, BlockType neighbor) {
+        return switch (current.getCullingMode()) {
+            case NONE -> false;
+
+            case ALWAYS_CULL -> neighbor != BlockType.AIR;
+
+            case CULL_IF_OPAQUE -> neighbor != BlockType.AIR
+                    && neighbor.getTransparencyType() == TransparencyType.OPAQUE;
+
+            case CULL_IF_SAME -> neighbor == current;
+
+            case CULL_IF_SOLID -> neighbor != BlockType.AIR
+                    && (neighbor.getTransparencyType() == TransparencyType.OPAQUE
+                    || neighbor.getTransparencyType() == TransparencyType.CUTOUT);
+            case CULL_IF_SAME_OR_OPAQUE -> (neighbor == current) || (neighbor != BlockType.AIR
+                    && neighbor.getTransparencyType() == TransparencyType.OPAQUE);
+        };
+    }
+}
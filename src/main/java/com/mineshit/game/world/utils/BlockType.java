@@ -39,11 +39,6 @@ public enum BlockType {
     }
 
     public static BlockType fromId(short id) {
-        for (BlockType blockType : BlockType.values()) {
-            if (blockType.getId() == id) {
-                return blockType;
-            }
-        }
-        return null;
+        return id >= 0 && id < BlockRegistry.COUNT ? BlockRegistry.get(id) : null;
     }
 }
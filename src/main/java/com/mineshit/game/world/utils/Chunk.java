@@ -1,35 +1,65 @@
 package com.mineshit.game.world.utils;
 
 import lombok.Getter;
-import lombok.Setter;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class Chunk {
     public static final int SIZE = 32;
     public static final int TOTAL_BLOCKS = SIZE * SIZE * SIZE;
 
+    // Sections de mesh : tranches de SECTION_SIZE couches en Y, remeshées séparément après une édition
+    public static final int SECTION_SIZE = 8;
+    public static final int SECTION_COUNT = SIZE / SECTION_SIZE;
+
     @Getter
     private final Vector3i position;
 
-    @Getter @Setter
-    private ChunkState state;
+    @Getter
+    private volatile ChunkState state;
+
+    private final ChunkStateIndex stateIndex;
 
     private boolean isUniform = true;
     @Getter
     private short uniformBlockId = 0;
 
-    private List<Short> palette;
+    // Palette en tableau primitif + index inverse id -> index (-1 si absent) pour éviter les indexOf
+    private short[] palette;
+    private int paletteSize;
+    private int[] paletteIndexById;
     private int bitsPerBlock;
     private long[] data;
 
+    // Un bit par section touchée depuis le dernier remesh
+    private int dirtySections;
+
+    // Modifié depuis sa génération ou sa dernière sauvegarde : à écrire sur disque au déchargement
+    private volatile boolean unsaved;
+
     public Chunk(Vector3i position) {
+        this(position, null);
+    }
+
+    public Chunk(Vector3i position, ChunkStateIndex stateIndex) {
         this.position = new Vector3i(position);
-        this.state = ChunkState.EMPTY;
+        this.stateIndex = stateIndex;
+        setState(ChunkState.EMPTY);
+    }
+
+    // DELETED est définitif : un thread de génération ou de meshing en retard ne ressuscite pas le chunk
+    public synchronized void setState(ChunkState state) {
+        ChunkState previous = this.state;
+        if (previous == ChunkState.DELETED) return;
+
+        this.state = state;
+
+        if (stateIndex != null && previous != state) {
+            stateIndex.move(this, previous, state);
+        }
     }
 
     public short getBlock(int x, int y, int z) {
@@ -41,7 +71,18 @@ public class Chunk {
 
         int index = getBlockIndex(x, y, z);
         int paletteIndex = readBlockData(index, data, bitsPerBlock);
-        return palette.get(paletteIndex);
+        return palette[paletteIndex];
+    }
+
+    // Décode la ligne (y, z), SIZE blocs le long de x, dans out[offset, offset + SIZE)
+    public void getRow(int y, int z, short[] out, int offset) {
+        checkBounds(0, y, z);
+        decodeBlocks(getBlockIndex(0, y, z), SIZE, out, offset);
+    }
+
+    // Tout le chunk dans out, dans l'ordre de getBlockIndex
+    public void getAllBlocks(short[] out) {
+        decodeBlocks(0, TOTAL_BLOCKS, out, 0);
     }
 
     public short getBlockAtWorld(int worldX, int worldY, int worldZ) {
@@ -74,61 +115,75 @@ public class Chunk {
             fillUniformBlock();
         }
 
-        int paletteIndex = palette.indexOf(blockId);
-        if (paletteIndex == -1) {
-            palette.add(blockId);
-            paletteIndex = palette.size() - 1;
-            ensureCapacity();
-        }
+        int paletteIndex = getOrAddPaletteIndex(blockId);
 
         int index = getBlockIndex(x, y, z);
         writeBlockData(index, paletteIndex, data, bitsPerBlock);
+
+        markDirtySections(y);
+        unsaved = true;
+    }
+
+    // Les faces de la couche y dépendent des couches y - 1 et y + 1
+    public void markDirtySections(int y) {
+        int first = Math.max(0, y - 1) / SECTION_SIZE;
+        int last = Math.min(SIZE - 1, y + 1) / SECTION_SIZE;
+        for (int section = first; section <= last; section++) {
+            dirtySections |= 1 << section;
+        }
+    }
+
+    public int takeDirtySections() {
+        int sections = dirtySections;
+        dirtySections = 0;
+        return sections;
     }
 
+    // Une passe de comptage fixe la palette et bitsPerBlock, puis les données sont écrites une seule fois
     public void setAllBlocks(short[] blocks) {
         if (blocks.length != TOTAL_BLOCKS) {
             throw new IllegalArgumentException("Block array must contain exactly " + TOTAL_BLOCKS + " elements.");
         }
 
-        boolean uniform = true;
-        short first = blocks[0];
-        for (int i = 1; i < blocks.length; i++) {
-            if (blocks[i] != first) {
-                uniform = false;
-                break;
+        int[] indexById = new int[BlockRegistry.COUNT];
+        Arrays.fill(indexById, -1);
+
+        short[] newPalette = new short[BlockRegistry.COUNT];
+        int newPaletteSize = 0;
+        for (short blockId : blocks) {
+            if (indexById[blockId] == -1) {
+                indexById[blockId] = newPaletteSize;
+                newPalette[newPaletteSize++] = blockId;
             }
         }
 
-        if (uniform) {
-            this.fillChunk(Objects.requireNonNull(BlockType.fromId(first))); // ou juste: this.uniformBlockId = first; this.isUniform = true; ...
+        if (newPaletteSize == 1) {
+            this.fillChunk(BlockRegistry.get(blocks[0]));
             return;
         }
 
         this.isUniform = false;
-        this.initializePaletteAndData();
+        this.palette = newPalette;
+        this.paletteSize = newPaletteSize;
+        this.paletteIndexById = indexById;
+        this.bitsPerBlock = getRequiredBits(newPaletteSize);
+        this.data = new long[getDataLength(bitsPerBlock)];
 
         for (int i = 0; i < blocks.length; i++) {
-            short blockId = blocks[i];
-            int paletteIndex = palette.indexOf(blockId);
-
-            if (paletteIndex == -1) {
-                palette.add(blockId);
-                paletteIndex = palette.size() - 1;
-                ensureCapacity();
-            }
-
-            writeBlockData(i, paletteIndex, data, bitsPerBlock);
+            writeBlockData(i, indexById[blocks[i]], data, bitsPerBlock);
         }
+        unsaved = true;
     }
 
-
-
     public void fillChunk(BlockType block) {
         short blockId = block.getId();
         isUniform = true;
         uniformBlockId = blockId;
         palette = null;
+        paletteIndexById = null;
+        paletteSize = 0;
         data = null;
+        unsaved = true;
     }
 
     public boolean isUniform() {
@@ -161,6 +216,112 @@ public class Chunk {
         );
     }
 
+    // --- Sauvegarde ---
+
+    public boolean isUnsaved() {
+        return unsaved;
+    }
+
+    public void markSaved() {
+        unsaved = false;
+    }
+
+    // Format : uniforme (1 octet) puis l'id du bloc, ou la palette, bitsPerBlock et les longs de données tels
+    // quels. La relecture est une copie, sans réencodage des blocs
+    public int getSerializedSize() {
+        if (isUniform) return 1 + Short.BYTES;
+        return 1 + Short.BYTES + paletteSize * Short.BYTES + 1 + data.length * Long.BYTES;
+    }
+
+    public void serialize(ByteBuffer buffer) {
+        buffer.put((byte) (isUniform ? 1 : 0));
+        if (isUniform) {
+            buffer.putShort(uniformBlockId);
+            return;
+        }
+
+        buffer.putShort((short) paletteSize);
+        for (int i = 0; i < paletteSize; i++) {
+            buffer.putShort(palette[i]);
+        }
+        buffer.put((byte) bitsPerBlock);
+
+        buffer.asLongBuffer().put(data);
+        buffer.position(buffer.position() + data.length * Long.BYTES);
+    }
+
+    // Enregistrement tronqué ou corrompu : IllegalArgumentException (ou BufferUnderflowException), le chunk
+    // n'est modifié qu'une fois tout l'enregistrement validé
+    public void deserialize(ByteBuffer buffer) {
+        byte uniform = buffer.get();
+        if (uniform == 1) {
+            short blockId = buffer.getShort();
+            if (!BlockRegistry.isValid(blockId)) {
+                throw new IllegalArgumentException("Unknown block id in chunk record: " + blockId);
+            }
+            fillChunk(BlockRegistry.get(blockId));
+            unsaved = false;
+            return;
+        }
+        if (uniform != 0) {
+            throw new IllegalArgumentException("Invalid chunk record flag: " + uniform);
+        }
+
+        int size = buffer.getShort();
+        if (size < 1 || size > BlockRegistry.COUNT) {
+            throw new IllegalArgumentException("Invalid palette size in chunk record: " + size);
+        }
+
+        short[] newPalette = new short[BlockRegistry.COUNT];
+        int[] indexById = new int[BlockRegistry.COUNT];
+        Arrays.fill(indexById, -1);
+        for (int i = 0; i < size; i++) {
+            short blockId = buffer.getShort();
+            if (!BlockRegistry.isValid(blockId) || indexById[blockId] != -1) {
+                throw new IllegalArgumentException("Invalid palette id in chunk record: " + blockId);
+            }
+            newPalette[i] = blockId;
+            indexById[blockId] = i;
+        }
+
+        int bits = buffer.get();
+        if (bits != getRequiredBits(size)) {
+            throw new IllegalArgumentException("Invalid bits per block in chunk record: " + bits);
+        }
+
+        long[] newData = new long[getDataLength(bits)];
+        if (buffer.remaining() < newData.length * Long.BYTES) {
+            throw new IllegalArgumentException("Truncated chunk record: " + buffer.remaining() + " bytes of data, "
+                    + newData.length * Long.BYTES + " expected");
+        }
+        buffer.asLongBuffer().get(newData);
+        buffer.position(buffer.position() + newData.length * Long.BYTES);
+
+        // Un index hors palette ferait planter le meshing bien plus tard ; max des entrées, long par long
+        int valuesPerLong = 64 / bits;
+        long mask = (1L << bits) - 1;
+        long maxIndex = 0;
+        for (int i = 0; i < newData.length; i++) {
+            long word = newData[i];
+            int count = Math.min(valuesPerLong, TOTAL_BLOCKS - i * valuesPerLong);
+            for (int j = 0; j < count; j++) {
+                maxIndex = Math.max(maxIndex, word & mask);
+                word >>>= bits;
+            }
+        }
+        if (maxIndex >= size) {
+            throw new IllegalArgumentException("Palette index out of range in chunk record: " + maxIndex);
+        }
+
+        this.isUniform = false;
+        this.palette = newPalette;
+        this.paletteSize = size;
+        this.paletteIndexById = indexById;
+        this.bitsPerBlock = bits;
+        this.data = newData;
+        unsaved = false;
+    }
+
     // --- Internal ---
 
     private void checkBounds(int x, int y, int z) {
@@ -169,41 +330,55 @@ public class Chunk {
         }
     }
 
-    private int getBlockIndex(int x, int y, int z) {
+    public static int getBlockIndex(int x, int y, int z) {
         return x + (z * SIZE) + (y * SIZE * SIZE);
     }
 
     private void initializePaletteAndData() {
-        palette = new ArrayList<>();
+        palette = new short[BlockRegistry.COUNT];
+        paletteSize = 0;
+        paletteIndexById = new int[BlockRegistry.COUNT];
+        Arrays.fill(paletteIndexById, -1);
         bitsPerBlock = 4;
 
-        int totalBits = TOTAL_BLOCKS * bitsPerBlock;
-        int dataLength = (totalBits + 63) / 64;
-        data = new long[dataLength];
+        data = new long[getDataLength(bitsPerBlock)];
 
-        if (!palette.contains((short) 0)) palette.add((short) 0);
-        if (!palette.contains(uniformBlockId)) palette.add(uniformBlockId);
+        getOrAddPaletteIndex((short) 0);
+        getOrAddPaletteIndex(uniformBlockId);
+    }
+
+    private int getOrAddPaletteIndex(short blockId) {
+        int paletteIndex = paletteIndexById[blockId];
+        if (paletteIndex == -1) {
+            paletteIndex = paletteSize++;
+            palette[paletteIndex] = blockId;
+            paletteIndexById[blockId] = paletteIndex;
+            ensureCapacity();
+        }
+        return paletteIndex;
     }
 
     private void fillUniformBlock() {
-        int paletteIndex = palette.indexOf(uniformBlockId);
+        int paletteIndex = paletteIndexById[uniformBlockId];
         for (int i = 0; i < TOTAL_BLOCKS; i++) {
             writeBlockData(i, paletteIndex, data, bitsPerBlock);
         }
     }
 
     private void ensureCapacity() {
-        int requiredBits = Math.max(4, 32 - Integer.numberOfLeadingZeros(palette.size() - 1));
+        int requiredBits = getRequiredBits(paletteSize);
         if (requiredBits != bitsPerBlock) {
             reallocateData(requiredBits);
         }
 
     }
 
+    private static int getRequiredBits(int paletteSize) {
+        return Math.max(4, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
     private void reallocateData(int newBits) {
-        int totalBits = TOTAL_BLOCKS * newBits;
-        int dataLength = (totalBits + 63) / 64;
-        long[] newData = new long[dataLength];
+        long[] newData = new long[getDataLength(newBits)];
 
         for (int i = 0; i < TOTAL_BLOCKS; i++) {
             int paletteIndex = readBlockData(i, data, bitsPerBlock);
@@ -215,33 +390,53 @@ public class Chunk {
     }
 
 
+    // Les entrées ne chevauchent jamais deux long : 64 / bitsPerBlock entrées par long, les bits restants sont perdus
+    private static int getDataLength(int bitsPerBlock) {
+        int valuesPerLong = 64 / bitsPerBlock;
+        return (TOTAL_BLOCKS + valuesPerLong - 1) / valuesPerLong;
+    }
+
     private void writeBlockData(int index, int paletteIndex, long[] dataArray, int bitsPerBlock) {
-        int bitIndex = index * bitsPerBlock;
-        int arrayIndex = bitIndex / 64;
-        int bitOffset = bitIndex % 64;
+        int valuesPerLong = 64 / bitsPerBlock;
+        int arrayIndex = index / valuesPerLong;
+        int bitOffset = (index - arrayIndex * valuesPerLong) * bitsPerBlock;
 
         long mask = ((1L << bitsPerBlock) - 1L) << bitOffset;
         dataArray[arrayIndex] = (dataArray[arrayIndex] & ~mask) | ((long) paletteIndex << bitOffset);
-
-        if (64 - bitOffset < bitsPerBlock) {
-            int remaining = bitsPerBlock - (64 - bitOffset);
-            mask = (1L << remaining) - 1;
-            dataArray[arrayIndex + 1] = (dataArray[arrayIndex + 1] & ~mask) | ((long) paletteIndex >> (bitsPerBlock - remaining));
-        }
     }
 
     private int readBlockData(int index, long[] dataArray, int bitsPerBlock) {
-        int bitIndex = index * bitsPerBlock;
-        int arrayIndex = bitIndex / 64;
-        int bitOffset = bitIndex % 64;
+        int valuesPerLong = 64 / bitsPerBlock;
+        int arrayIndex = index / valuesPerLong;
+        int bitOffset = (index - arrayIndex * valuesPerLong) * bitsPerBlock;
 
-        long value = (dataArray[arrayIndex] >>> bitOffset) & ((1L << bitsPerBlock) - 1);
+        return (int) ((dataArray[arrayIndex] >>> bitOffset) & ((1L << bitsPerBlock) - 1));
+    }
 
-        if (64 - bitOffset < bitsPerBlock) {
-            int remaining = bitsPerBlock - (64 - bitOffset);
-            value |= (dataArray[arrayIndex + 1] & ((1L << remaining) - 1)) << (bitsPerBlock - remaining);
+    // Un seul accès mémoire par long : ses entrées sont dépilées par décalages successifs
+    private void decodeBlocks(int start, int count, short[] out, int offset) {
+        if (isUniform) {
+            Arrays.fill(out, offset, offset + count, uniformBlockId);
+            return;
         }
 
-        return (int) value;
+        int valuesPerLong = 64 / bitsPerBlock;
+        long mask = (1L << bitsPerBlock) - 1;
+
+        int index = start;
+        int end = start + count;
+        while (index < end) {
+            int arrayIndex = index / valuesPerLong;
+            int slot = index - arrayIndex * valuesPerLong;
+            int n = Math.min(valuesPerLong - slot, end - index);
+
+            long word = data[arrayIndex] >>> (slot * bitsPerBlock);
+            for (int i = 0; i < n; i++) {
+                out[offset++] = palette[(int) (word & mask)];
+                word >>>= bitsPerBlock;
+            }
+
+            index += n;
+        }
     }
 }
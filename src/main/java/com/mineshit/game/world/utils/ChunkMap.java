@@ -0,0 +1,128 @@
+package com.mineshit.game.world.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Table de chunks à adressage ouvert (sondage linéaire) indexée par la position packée sur un long :
+// aucune allocation de clé pour une recherche. Accès réservé au thread principal.
+public class ChunkMap {
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Chunk[] values = new Chunk[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    // 21 bits signés par axe
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+    }
+
+    public Chunk get(int x, int y, int z) {
+        return get(pack(x, y, z));
+    }
+
+    public Chunk get(long key) {
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return null;
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return get(x, y, z) != null;
+    }
+
+    public void put(Chunk chunk) {
+        if (size + 1 > values.length * LOAD_FACTOR) {
+            resize(values.length * 2);
+        }
+
+        long key = pack(chunk.getPosition().x, chunk.getPosition().y, chunk.getPosition().z);
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = chunk;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = chunk;
+        size++;
+    }
+
+    public Chunk remove(int x, int y, int z) {
+        long key = pack(x, y, z);
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Chunk removed = values[i];
+                removeAt(i);
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    public void forEach(Consumer<Chunk> action) {
+        for (Chunk chunk : values) {
+            if (chunk != null) action.accept(chunk);
+        }
+    }
+
+    public List<Chunk> values() {
+        List<Chunk> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    // Suppression par décalage arrière : pas de pierre tombale, les chaînes de sondage restent compactes
+    private void removeAt(int hole) {
+        values[hole] = null;
+        size--;
+
+        for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            // L'entrée peut combler le trou si sa case d'origine n'est pas dans (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                values[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Chunk[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new Chunk[capacity];
+        mask = capacity - 1;
+        size = 0;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+
+            int j = slot(oldKeys[i]);
+            while (values[j] != null) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+            size++;
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.mineshit.game.world.utils;
 
-import com.mineshit.engine.game.ChunkMeshBuilder;
 import com.mineshit.engine.game.ChunkMeshData;
-import com.mineshit.engine.graphics.renderer.utils.Mesh;
+import com.mineshit.engine.graphics.renderer.utils.ChunkMesh;
 import com.mineshit.engine.graphics.renderer.utils.Shader;
-import com.mineshit.engine.utils.FaceDirection;
 import com.mineshit.game.world.World;
 import lombok.Getter;
 import org.joml.FrustumIntersection;
@@ -13,106 +11,57 @@ import org.joml.Vector3f;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 public class ChunkRenderable {
 
-    private static final ExecutorService meshingExecutor = Executors.newFixedThreadPool(
-            1
-    );
+    // Incrémentée à chaque nouvelle demande de mesh : un résultat d'une version plus ancienne est jeté
+    @Getter
+    private volatile int meshVersion;
+
+    // Sections éditées pas encore patchées, et mesh complet demandé mais pas encore reçu :
+    // un patch de sections n'est possible que sur un mesh complet à jour
+    private int pendingSections;
+    private boolean fullMeshPending = true;
 
-    private Future<ChunkMeshData> pendingMesh = null;
+    // Échecs de meshing consécutifs, remis à zéro au premier mesh reçu
+    private int meshFailures;
 
     @Getter
     private final Chunk chunk;
-    private Mesh opaqueMesh;
-    private Mesh transparentMesh;
-    private Mesh shadowMesh;
+    private ChunkMesh opaqueMesh;
+    private ChunkMesh transparentMesh;
+    private ChunkMesh shadowMesh;
     @Getter
     private FloatBuffer crossInstanceBuffer;
     @Getter
     private int crossInstanceCount;
+    private final int[] crossSectionInstanceCounts = new int[Chunk.SECTION_COUNT];
 
     public ChunkRenderable(Chunk chunk) {
         this.chunk = chunk;
     }
 
-    public void updateMeshIfNeeded(World world) {
-        if ((chunk.getState() == ChunkState.DIRTY || chunk.getState() == ChunkState.GENERATED) && pendingMesh == null) {
-            chunk.setState(ChunkState.MESHING);
-
-            Map<FaceDirection, Chunk> neighbors = world.getNeighborChunks(chunk.getPosition());
-            pendingMesh = meshingExecutor.submit(() -> ChunkMeshBuilder.buildBuffers(chunk, neighbors));
-        }
-
-        if (pendingMesh != null && pendingMesh.isDone()) {
-            try {
-                ChunkMeshData data = pendingMesh.get();
-              
-                cleanupMesh();
-
-                this.opaqueMesh = new Mesh(data.opaqueVertexBuffer(), data.opaqueIndexBuffer(), 7);
-                this.transparentMesh = new Mesh(data.transparentVertexBuffer(), data.transparentIndexBuffer(), 7);
-                this.shadowMesh = new Mesh(data.shadowVertexBuffer(), data.shadowIndexBuffer(), 7);
-
-                if (data.crossInstanceBuffer() != null) {
-                    FloatBuffer src = data.crossInstanceBuffer();
-                    src.rewind();
-                    this.crossInstanceBuffer = MemoryUtil.memAllocFloat(src.remaining());
-                    this.crossInstanceBuffer.put(src);
-                    this.crossInstanceBuffer.flip();
-                    this.crossInstanceCount = data.crossInstanceCount();
-                }
-
-                cleanupMeshDate(data);
-
-                if(chunk.getState() != ChunkState.DIRTY) {
-                    chunk.setState(ChunkState.MESHED);
-                }
-
-            } catch (Exception e) {
-                chunk.setState(ChunkState.DIRTY);
-            } finally {
-                pendingMesh = null;
-            }
-        }
+    public int nextMeshVersion() {
+        return ++meshVersion;
     }
 
-    public void forceRebuild(World world) {
-        if (pendingMesh != null && !pendingMesh.isDone()) {
-            pendingMesh.cancel(true);
-        }
-
-        chunk.setState(ChunkState.MESHING);
-
-        Map<FaceDirection, Chunk> neighbors = world.getNeighborChunks(chunk.getPosition());
-        ChunkMeshData data = ChunkMeshBuilder.buildBuffers(chunk, neighbors);
-
-        if (data.canBeAdd()) {
-            cleanupMesh();
-            this.opaqueMesh = new Mesh(data.opaqueVertexBuffer(), data.opaqueIndexBuffer(), 7);
-            this.transparentMesh = new Mesh(data.transparentVertexBuffer(), data.transparentIndexBuffer(), 7);
-            this.shadowMesh = new Mesh(data.shadowVertexBuffer(), data.shadowIndexBuffer(), 7);
-
-            if (data.crossInstanceBuffer() != null) {
-                FloatBuffer src = data.crossInstanceBuffer();
-                src.rewind();
-                this.crossInstanceBuffer = MemoryUtil.memAllocFloat(src.remaining());
-                this.crossInstanceBuffer.put(src);
-                this.crossInstanceBuffer.flip();
-                this.crossInstanceCount = data.crossInstanceCount();
-            }
-        }
-        cleanupMeshDate(data);
-        chunk.setState(ChunkState.MESHED);
+    public void requestFullMesh() {
+        chunk.takeDirtySections();
+        pendingSections = 0;
+        fullMeshPending = true;
     }
 
+    // Sections à remesher pour rattraper les éditions, 0 si seul un mesh complet convient
+    public int requestSections() {
+        pendingSections |= chunk.takeDirtySections();
+        if (fullMeshPending) return 0;
+        return pendingSections;
+    }
 
     public void renderOpaque(World world, Shader shader) {
         if (opaqueMesh == null) return;
@@ -167,37 +116,114 @@ public class ChunkRenderable {
 
 
     public boolean hasTransparent(){
-        return transparentMesh != null;
+        return transparentMesh != null && transparentMesh.getQuadCount() > 0;
     }
 
     public void cleanup() {
+        nextMeshVersion();
         cleanupMesh();
-        if(pendingMesh != null) pendingMesh.cancel(true);
-    }
-
-    public static void cleanupStatic(){
-        meshingExecutor.shutdownNow();
     }
 
     private void cleanupMesh(){
         if(opaqueMesh != null) opaqueMesh.cleanup();
         if(transparentMesh != null) transparentMesh.cleanup();
         if(shadowMesh != null) shadowMesh.cleanup();
+        opaqueMesh = null;
+        transparentMesh = null;
+        shadowMesh = null;
         if(crossInstanceBuffer != null) {
             MemoryUtil.memFree(crossInstanceBuffer);
             crossInstanceBuffer = null;
             crossInstanceCount = 0;
         }
+        Arrays.fill(crossSectionInstanceCounts, 0);
+    }
+
+    // Mesh complet reçu : les meshes absents sont vides, un patch de sections les crée au besoin
+    public boolean hasMesh() {
+        return !fullMeshPending;
+    }
+
+    public int recordMeshFailure() {
+        return ++meshFailures;
     }
 
-    private void cleanupMeshDate(ChunkMeshData data){
-        MemoryUtil.memFree(data.opaqueVertexBuffer());
-        MemoryUtil.memFree(data.opaqueIndexBuffer());
-        MemoryUtil.memFree(data.transparentVertexBuffer());
-        MemoryUtil.memFree(data.transparentIndexBuffer());
-        MemoryUtil.memFree(data.shadowVertexBuffer());
-        MemoryUtil.memFree(data.shadowIndexBuffer());
-        MemoryUtil.memFree(data.crossInstanceBuffer());
+    // Les buffers de ChunkMeshData sont déjà à la bonne taille : le buffer d'instances cross est gardé tel quel
+    public void applyMeshData(ChunkMeshData data){
+        meshFailures = 0;
+
+        if (data.isPartial()) {
+            applySections(data);
+            return;
+        }
+
+        cleanupMesh();
+        fullMeshPending = false;
+
+        // Chunk tout air ou entièrement caché (la majorité de la sphère) : ni VAO ni buffers
+        if (!data.canBeAdd() && !data.hasCrossInstances()) {
+            data.free();
+            return;
+        }
+
+        // Un VAO par flux non vide : opaque et ombre vont ensemble, le transparent manque à presque tout le terrain
+        if (data.hasOpaque()) {
+            this.opaqueMesh = new ChunkMesh(data.opaqueVertexBuffer(), data.opaqueSectionVertexCounts());
+            this.shadowMesh = new ChunkMesh(data.shadowVertexBuffer(), data.opaqueSectionVertexCounts());
+        }
+        if (data.hasTransparent()) {
+            this.transparentMesh = new ChunkMesh(data.transparentVertexBuffer(), data.transparentSectionVertexCounts());
+        }
+
+        this.crossInstanceBuffer = data.crossInstanceBuffer();
+        this.crossInstanceCount = data.crossInstanceCount();
+        System.arraycopy(data.crossSectionInstanceCounts(), 0, crossSectionInstanceCounts, 0, Chunk.SECTION_COUNT);
+
+        data.freeVertexBuffers();
+    }
+
+    private void applySections(ChunkMeshData data) {
+        int firstSection = data.firstSection();
+
+        opaqueMesh = updateSections(opaqueMesh, data.hasOpaque(), firstSection, data.opaqueVertexBuffer(), data.opaqueSectionVertexCounts());
+        shadowMesh = updateSections(shadowMesh, data.hasOpaque(), firstSection, data.shadowVertexBuffer(), data.opaqueSectionVertexCounts());
+        transparentMesh = updateSections(transparentMesh, data.hasTransparent(), firstSection, data.transparentVertexBuffer(), data.transparentSectionVertexCounts());
+
+        // Instances cross : les sections remplacées sont recollées entre celles d'avant et celles d'après
+        int[] newCounts = data.crossSectionInstanceCounts();
+        int before = 0;
+        for (int section = 0; section < firstSection; section++) before += crossSectionInstanceCounts[section];
+        int replaced = 0;
+        for (int i = 0; i < newCounts.length; i++) replaced += crossSectionInstanceCounts[firstSection + i];
+        int after = crossInstanceCount - before - replaced;
+
+        // Sans buffer (chunk vide jusque-là), tous les comptes sont à 0
+        FloatBuffer merged = MemoryUtil.memAllocFloat((crossInstanceCount - replaced + data.crossInstanceCount()) * 4);
+        if (crossInstanceBuffer != null) merged.put(crossInstanceBuffer.slice(0, before * 4));
+        merged.put(data.crossInstanceBuffer());
+        if (crossInstanceBuffer != null) merged.put(crossInstanceBuffer.slice((before + replaced) * 4, after * 4));
+        merged.flip();
+
+        if (crossInstanceBuffer != null) MemoryUtil.memFree(crossInstanceBuffer);
+        crossInstanceBuffer = merged;
+        crossInstanceCount = merged.remaining() / 4;
+        System.arraycopy(newCounts, 0, crossSectionInstanceCounts, firstSection, newCounts.length);
+
+        pendingSections &= ~data.getSectionMask();
+        data.free();
+    }
+
+    // Mesh absent créé au premier patch qui lui apporte des sommets, les autres sections restant vides
+    private static ChunkMesh updateSections(ChunkMesh mesh, boolean hasVertices, int firstSection, IntBuffer packedVertexBuffer, int[] sectionVertexCounts) {
+        if (mesh != null) {
+            mesh.updateSections(firstSection, packedVertexBuffer, sectionVertexCounts);
+            return mesh;
+        }
+        if (!hasVertices) return null;
+
+        int[] counts = new int[Chunk.SECTION_COUNT];
+        System.arraycopy(sectionVertexCounts, 0, counts, firstSection, sectionVertexCounts.length);
+        return new ChunkMesh(packedVertexBuffer, counts);
     }
 
 }
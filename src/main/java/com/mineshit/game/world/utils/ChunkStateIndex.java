@@ -0,0 +1,40 @@
+package com.mineshit.game.world.utils;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Ensembles de chunks par état, tenus à jour par Chunk.setState : lire les chunks d'un état coûte
+// le nombre de chunks dans cet état, pas le nombre de chunks chargés. Les états changent aussi depuis
+// les threads de génération et de meshing, d'où les ensembles concurrents.
+public class ChunkStateIndex {
+
+    private final Map<ChunkState, Set<Chunk>> chunksByState = new EnumMap<>(ChunkState.class);
+
+    public ChunkStateIndex() {
+        for (ChunkState state : ChunkState.values()) {
+            chunksByState.put(state, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    void move(Chunk chunk, ChunkState previous, ChunkState state) {
+        if (previous != null) chunksByState.get(previous).remove(chunk);
+        chunksByState.get(state).add(chunk);
+    }
+
+    public Collection<Chunk> get(ChunkState state) {
+        return chunksByState.get(state);
+    }
+
+    // Retire les chunks de l'état donné en les traitant : sert aux DELETED, qui ne changent plus d'état
+    public void drain(ChunkState state, Consumer<Chunk> action) {
+        Set<Chunk> chunks = chunksByState.get(state);
+        for (Chunk chunk : chunks) {
+            chunks.remove(chunk);
+            action.accept(chunk);
+        }
+    }
+}
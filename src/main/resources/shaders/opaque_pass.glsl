@@ -1,9 +1,9 @@
 //@vs
 #version 460 core
-layout(location = 0) in vec3 aPos;
-layout(location = 1) in vec2 aUV;
-layout(location = 2) in float aTexIndex;
-layout(location = 3) in float aFaceIndex;
+// Sommet compressé (voir MeshStream) :
+// x : pos.x (6 bits) | pos.y (6) | pos.z (6) | uv.x (6) | uv.y (6)
+// y : texture index (16 bits) | face index (3)
+layout(location = 0) in uvec2 aPacked;
 
 out flat float vTexIndex;
 out flat float vFaceIndex;
@@ -15,6 +15,11 @@ uniform mat4 uView;
 uniform mat4 uModel;
 
 void main() {
+    vec3 aPos = vec3(aPacked.x & 63u, (aPacked.x >> 6) & 63u, (aPacked.x >> 12) & 63u);
+    vec2 aUV = vec2((aPacked.x >> 18) & 63u, (aPacked.x >> 24) & 63u);
+    float aTexIndex = float(aPacked.y & 0xFFFFu);
+    float aFaceIndex = float((aPacked.y >> 16) & 7u);
+
     vec4 worldPos = uModel * vec4(aPos, 1.0);
     vWorldPos = worldPos.xyz;
     vTexIndex = aTexIndex;
@@ -37,9 +42,10 @@ in vec3 vWorldPos;
 
 uniform sampler2DArray uTextureArray;
 
+// baseUV peut dépasser 1 sur un quad fusionné (greedy meshing) : fract() répète la tuile une fois par bloc
 vec2 getFaceUV(vec2 baseUV, int faceIndex) {
     float tileWidth = 1.0 / 6.0;
-    return vec2(baseUV.x * tileWidth + tileWidth * float(faceIndex), baseUV.y);
+    return vec2(fract(baseUV.x) * tileWidth + tileWidth * float(faceIndex), fract(baseUV.y));
 }
 
 vec3 getFaceNormal(int faceIndex) {
@@ -1,10 +1,10 @@
 //@vs
 #version 460 core
 
-layout(location = 0) in vec3 aPos;
-layout(location = 1) in vec2 aUV;
-layout(location = 2) in float aTexIndex;
-layout(location = 3) in float aFaceIndex;
+// Sommet compressé (voir MeshStream) :
+// x : pos.x (6 bits) | pos.y (6) | pos.z (6) | uv.x (6) | uv.y (6)
+// y : texture index (16 bits) | face index (3)
+layout(location = 0) in uvec2 aPacked;
 
 uniform mat4 uModel;
 uniform mat4 uLightSpaceMatrix;
@@ -14,6 +14,11 @@ out flat float vFaceIndex;
 out vec2 vUV;
 
 void main() {
+    vec3 aPos = vec3(aPacked.x & 63u, (aPacked.x >> 6) & 63u, (aPacked.x >> 12) & 63u);
+    vec2 aUV = vec2((aPacked.x >> 18) & 63u, (aPacked.x >> 24) & 63u);
+    float aTexIndex = float(aPacked.y & 0xFFFFu);
+    float aFaceIndex = float((aPacked.y >> 16) & 7u);
+
     vUV = aUV;
     vTexIndex = aTexIndex;
     vFaceIndex = aFaceIndex;
@@ -35,8 +40,8 @@ vec2 getFaceUV(vec2 baseUV, int faceIndex) {
     float tileWidth = 1.0 / faceCount;
 
     vec2 adjustedUV;
-    adjustedUV.x = baseUV.x * tileWidth + tileWidth * float(faceIndex);
-    adjustedUV.y = baseUV.y;
+    adjustedUV.x = fract(baseUV.x) * tileWidth + tileWidth * float(faceIndex);
+    adjustedUV.y = fract(baseUV.y);
 
     return adjustedUV;
 }
@@ -0,0 +1,566 @@
+package com.mineshit.game.utils;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+// Noyaux de grille OpenSimplex2 et Perlin de FastNoiseLite (2D et 3D) vectorisés le long de l'axe x,
+// 8 ou 16 lanes selon le CPU. Mêmes opérations flottantes dans le même ordre que le code scalaire,
+// les branches devenant des masques : le résultat est identique bit à bit, une seed donne le même monde.
+// Chaque noyau est découpé en étapes qui passent une ligne entière de la grille par des tableaux : une
+// étape reste assez petite pour que C2 la compile sans remettre les vecteurs en objets sur le tas.
+// Compilé par le profil simd-profile seulement, chargé par FastNoiseLite si le module jdk.incubator.vector
+// est présent à l'exécution.
+final class FastNoiseSimd implements NoiseGridKernels {
+
+    private static final VectorSpecies<Float> FLOAT = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT = VectorSpecies.of(int.class, FLOAT.vectorShape());
+    private static final int LANES = FLOAT.length();
+
+    private static final int PRIME_X = FastNoiseLite.PrimeX;
+    private static final int PRIME_Y = FastNoiseLite.PrimeY;
+    private static final int PRIME_Z = FastNoiseLite.PrimeZ;
+    private static final int HASH_MULTIPLIER = 0x27d4eb2d;
+
+    // Constantes de SingleSimplex et de la déformation de GetNoise
+    private static final float SKEW_SQRT3 = (float) 1.7320508075688772935274463415059;
+    private static final float F2 = 0.5f * (SKEW_SQRT3 - 1);
+    private static final float SQRT3 = 1.7320508075688772935274463415059f;
+    private static final float G2 = (3 - SQRT3) / 6;
+    private static final float C_T = 2 * (1 - 2 * G2) * (1 / G2 - 2);
+    private static final float C_A = -2 * (1 - 2 * G2) * (1 - 2 * G2);
+    private static final float CORNER_2 = 2 * G2 - 1;
+    private static final float R3 = (float) (2.0 / 3.0);
+
+    // Gradients de FastNoiseLite séparés par composante : un gather par composante, toujours à l'offset 0
+    private static final float[] GRADIENTS_2D_X = gradientComponent(FastNoiseLite.Gradients2D, 2, 0);
+    private static final float[] GRADIENTS_2D_Y = gradientComponent(FastNoiseLite.Gradients2D, 2, 1);
+    private static final float[] GRADIENTS_3D_X = gradientComponent(FastNoiseLite.Gradients3D, 4, 0);
+    private static final float[] GRADIENTS_3D_Y = gradientComponent(FastNoiseLite.Gradients3D, 4, 1);
+    private static final float[] GRADIENTS_3D_Z = gradientComponent(FastNoiseLite.Gradients3D, 4, 2);
+
+    FastNoiseSimd() {
+    }
+
+    @Override
+    public void simplex2D(float[] output, float[] xs, float[] ys, int seed, float amplitude) {
+        int sizeX = xs.length;
+        float[] paddedXs = pad(xs);
+        int count = paddedXs.length;
+
+        float[] x0 = new float[count], y0 = new float[count], t = new float[count], a = new float[count];
+        float[] n0 = new float[count], n1 = new float[count], n2 = new float[count];
+        int[] i = new int[count], j = new int[count], indices = new int[LANES];
+
+        int rowStart = 0;
+        for (float y : ys) {
+            simplexSkew(paddedXs, y, x0, y0, t, i, j);
+            simplexCorner0(seed, x0, y0, i, j, a, n0, indices);
+            simplexCorner2(seed, x0, y0, t, i, j, a, n2, indices);
+            simplexCorner1(seed, x0, y0, i, j, n1, indices);
+            accumulateSum(output, rowStart, sizeX, n0, n1, n2, 99.83685446303647f, amplitude);
+            rowStart += sizeX;
+        }
+    }
+
+    @Override
+    public void perlin2D(float[] output, float[] xs, float[] ys, int seed, float amplitude) {
+        int sizeX = xs.length;
+        PerlinAxis axis = new PerlinAxis(pad(xs));
+        float[] xf0 = new float[axis.count], xf1 = new float[axis.count];
+        int[] indices = new int[LANES];
+
+        int rowStart = 0;
+        for (float y : ys) {
+            int y0 = fastFloor(y);
+            float yd0 = y - y0;
+            float yd1 = yd0 - 1;
+            float ys0 = interpQuintic(yd0);
+            y0 *= PRIME_Y;
+            int y1 = y0 + PRIME_Y;
+
+            perlinEdge2D(seed, axis, y0, yd0, xf0, indices);
+            perlinEdge2D(seed, axis, y1, yd1, xf1, indices);
+            accumulateLerp(output, rowStart, sizeX, xf0, xf1, ys0, 1.4247691104677813f, amplitude);
+            rowStart += sizeX;
+        }
+    }
+
+    @Override
+    public void openSimplex2_3D(float[] output, float[] xs, float[] ys, float[] zs, int seed, float amplitude) {
+        int sizeX = xs.length;
+        float[] paddedXs = pad(xs);
+        int count = paddedXs.length;
+
+        OpenSimplex2Row row = new OpenSimplex2Row(count);
+
+        int rowStart = 0;
+        for (float z : zs) {
+            for (float y : ys) {
+                openSimplex2Setup(paddedXs, y, z, row);
+
+                int rowSeed = seed;
+                for (int l = 0; ; l++) {
+                    openSimplex2Vertex(rowSeed, row);
+                    openSimplex2Dominant(rowSeed, row);
+                    if (l == 1) break;
+                    openSimplex2Advance(row);
+                    rowSeed = ~rowSeed;
+                }
+
+                accumulateScaled(output, rowStart, sizeX, row.value, 32.69428253173828125f, amplitude);
+                rowStart += sizeX;
+            }
+        }
+    }
+
+    @Override
+    public void perlin3D(float[] output, float[] xs, float[] ys, float[] zs, int seed, float amplitude) {
+        int sizeX = xs.length;
+        PerlinAxis axis = new PerlinAxis(pad(xs));
+        float[] xf00 = new float[axis.count], xf10 = new float[axis.count], xf01 = new float[axis.count], xf11 = new float[axis.count];
+        int[] indices = new int[LANES];
+
+        int rowStart = 0;
+        for (float z : zs) {
+            int z0 = fastFloor(z);
+            float zd0 = z - z0;
+            float zd1 = zd0 - 1;
+            float zInterp = interpQuintic(zd0);
+            z0 *= PRIME_Z;
+            int z1 = z0 + PRIME_Z;
+
+            for (float y : ys) {
+                int y0 = fastFloor(y);
+                float yd0 = y - y0;
+                float yd1 = yd0 - 1;
+                float yInterp = interpQuintic(yd0);
+                y0 *= PRIME_Y;
+                int y1 = y0 + PRIME_Y;
+
+                perlinEdge3D(seed, axis, y0, z0, yd0, zd0, xf00, indices);
+                perlinEdge3D(seed, axis, y1, z0, yd1, zd0, xf10, indices);
+                perlinEdge3D(seed, axis, y0, z1, yd0, zd1, xf01, indices);
+                perlinEdge3D(seed, axis, y1, z1, yd1, zd1, xf11, indices);
+                perlinBlend3D(output, rowStart, sizeX, xf00, xf10, xf01, xf11, yInterp, zInterp, amplitude);
+                rowStart += sizeX;
+            }
+        }
+    }
+
+    // --- OpenSimplex2 2D ---
+
+    // Déformation de GetNoise puis cellule et position dans la cellule de SingleSimplex
+    private static void simplexSkew(float[] xs, float yValue, float[] x0Out, float[] y0Out, float[] tOut, int[] iOut, int[] jOut) {
+        for (int ix = 0; ix < xs.length; ix += LANES) {
+            FloatVector xBase = FloatVector.fromArray(FLOAT, xs, ix);
+
+            FloatVector t0 = xBase.add(yValue).mul(F2);
+            FloatVector x = xBase.add(t0);
+            FloatVector y = t0.add(yValue);
+
+            IntVector i = fastFloor(x);
+            IntVector j = fastFloor(y);
+            FloatVector xi = x.sub(toFloat(i));
+            FloatVector yi = y.sub(toFloat(j));
+
+            FloatVector t = xi.add(yi).mul(G2);
+            xi.sub(t).intoArray(x0Out, ix);
+            yi.sub(t).intoArray(y0Out, ix);
+            t.intoArray(tOut, ix);
+            i.mul(PRIME_X).intoArray(iOut, ix);
+            j.mul(PRIME_Y).intoArray(jOut, ix);
+        }
+    }
+
+    private static void simplexCorner0(int seed, float[] x0s, float[] y0s, int[] is, int[] js, float[] aOut, float[] nOut, int[] indices) {
+        for (int ix = 0; ix < x0s.length; ix += LANES) {
+            FloatVector x0 = FloatVector.fromArray(FLOAT, x0s, ix);
+            FloatVector y0 = FloatVector.fromArray(FLOAT, y0s, ix);
+
+            FloatVector a = FloatVector.broadcast(FLOAT, 0.5f).sub(x0.mul(x0)).sub(y0.mul(y0));
+            FloatVector grad = grad2D(seed, IntVector.fromArray(INT, is, ix), IntVector.fromArray(INT, js, ix), x0, y0, indices);
+
+            a.intoArray(aOut, ix);
+            pow4(a).mul(grad).blend(0, a.compare(VectorOperators.LE, 0)).intoArray(nOut, ix);
+        }
+    }
+
+    private static void simplexCorner2(int seed, float[] x0s, float[] y0s, float[] ts, int[] is, int[] js, float[] as, float[] nOut, int[] indices) {
+        for (int ix = 0; ix < x0s.length; ix += LANES) {
+            FloatVector a = FloatVector.fromArray(FLOAT, as, ix);
+            FloatVector c = FloatVector.fromArray(FLOAT, ts, ix).mul(C_T).add(a.add(C_A));
+
+            FloatVector x2 = FloatVector.fromArray(FLOAT, x0s, ix).add(CORNER_2);
+            FloatVector y2 = FloatVector.fromArray(FLOAT, y0s, ix).add(CORNER_2);
+            IntVector i2 = IntVector.fromArray(INT, is, ix).add(PRIME_X);
+            IntVector j2 = IntVector.fromArray(INT, js, ix).add(PRIME_Y);
+            FloatVector grad = grad2D(seed, i2, j2, x2, y2, indices);
+
+            pow4(c).mul(grad).blend(0, c.compare(VectorOperators.LE, 0)).intoArray(nOut, ix);
+        }
+    }
+
+    // y0 > x0 : coin (i, j + 1), sinon (i + 1, j)
+    private static void simplexCorner1(int seed, float[] x0s, float[] y0s, int[] is, int[] js, float[] nOut, int[] indices) {
+        for (int ix = 0; ix < x0s.length; ix += LANES) {
+            FloatVector x0 = FloatVector.fromArray(FLOAT, x0s, ix);
+            FloatVector y0 = FloatVector.fromArray(FLOAT, y0s, ix);
+            IntVector i = IntVector.fromArray(INT, is, ix);
+            IntVector j = IntVector.fromArray(INT, js, ix);
+
+            VectorMask<Float> upper = y0.compare(VectorOperators.GT, x0);
+            VectorMask<Integer> upperInt = upper.cast(INT);
+            FloatVector x1 = x0.add(G2 - 1).blend(x0.add(G2), upper);
+            FloatVector y1 = y0.add(G2).blend(y0.add(G2 - 1), upper);
+            IntVector i1 = i.add(PRIME_X).blend(i, upperInt);
+            IntVector j1 = j.blend(j.add(PRIME_Y), upperInt);
+
+            FloatVector b = FloatVector.broadcast(FLOAT, 0.5f).sub(x1.mul(x1)).sub(y1.mul(y1));
+            FloatVector grad = grad2D(seed, i1, j1, x1, y1, indices);
+
+            pow4(b).mul(grad).blend(0, b.compare(VectorOperators.LE, 0)).intoArray(nOut, ix);
+        }
+    }
+
+    // --- OpenSimplex2 3D ---
+
+    // État de SingleOpenSimplex2 pour une ligne de la grille, entre deux étapes
+    private static final class OpenSimplex2Row {
+        final float[] x0, y0, z0, ax0, ay0, az0, a, value;
+        final int[] i, j, k, xNSign, yNSign, zNSign;
+        final int[] indices = new int[LANES];
+
+        OpenSimplex2Row(int count) {
+            x0 = new float[count];
+            y0 = new float[count];
+            z0 = new float[count];
+            ax0 = new float[count];
+            ay0 = new float[count];
+            az0 = new float[count];
+            a = new float[count];
+            value = new float[count];
+            i = new int[count];
+            j = new int[count];
+            k = new int[count];
+            xNSign = new int[count];
+            yNSign = new int[count];
+            zNSign = new int[count];
+        }
+    }
+
+    // Rotation de GetNoise puis sommet arrondi de SingleOpenSimplex2
+    private static void openSimplex2Setup(float[] xs, float yValue, float zValue, OpenSimplex2Row row) {
+        for (int ix = 0; ix < xs.length; ix += LANES) {
+            FloatVector xBase = FloatVector.fromArray(FLOAT, xs, ix);
+            FloatVector r = xBase.add(yValue).add(zValue).mul(R3);
+
+            FloatVector x = r.sub(xBase);
+            FloatVector y = r.sub(yValue);
+            FloatVector z = r.sub(zValue);
+
+            IntVector i = fastRound(x);
+            IntVector j = fastRound(y);
+            IntVector k = fastRound(z);
+            FloatVector x0 = x.sub(toFloat(i));
+            FloatVector y0 = y.sub(toFloat(j));
+            FloatVector z0 = z.sub(toFloat(k));
+
+            IntVector xNSign = toInt(FloatVector.broadcast(FLOAT, -1.0f).sub(x0)).or(1);
+            IntVector yNSign = toInt(FloatVector.broadcast(FLOAT, -1.0f).sub(y0)).or(1);
+            IntVector zNSign = toInt(FloatVector.broadcast(FLOAT, -1.0f).sub(z0)).or(1);
+
+            toFloat(xNSign).mul(x0.neg()).intoArray(row.ax0, ix);
+            toFloat(yNSign).mul(y0.neg()).intoArray(row.ay0, ix);
+            toFloat(zNSign).mul(z0.neg()).intoArray(row.az0, ix);
+
+            FloatVector.broadcast(FLOAT, 0.6f).sub(x0.mul(x0)).sub(y0.mul(y0).add(z0.mul(z0))).intoArray(row.a, ix);
+            FloatVector.zero(FLOAT).intoArray(row.value, ix);
+
+            x0.intoArray(row.x0, ix);
+            y0.intoArray(row.y0, ix);
+            z0.intoArray(row.z0, ix);
+            i.mul(PRIME_X).intoArray(row.i, ix);
+            j.mul(PRIME_Y).intoArray(row.j, ix);
+            k.mul(PRIME_Z).intoArray(row.k, ix);
+            xNSign.intoArray(row.xNSign, ix);
+            yNSign.intoArray(row.yNSign, ix);
+            zNSign.intoArray(row.zNSign, ix);
+        }
+    }
+
+    private static void openSimplex2Vertex(int seed, OpenSimplex2Row row) {
+        for (int ix = 0; ix < row.a.length; ix += LANES) {
+            FloatVector a = FloatVector.fromArray(FLOAT, row.a, ix);
+            FloatVector grad = grad3D(seed,
+                    IntVector.fromArray(INT, row.i, ix), IntVector.fromArray(INT, row.j, ix), IntVector.fromArray(INT, row.k, ix),
+                    FloatVector.fromArray(FLOAT, row.x0, ix), FloatVector.fromArray(FLOAT, row.y0, ix), FloatVector.fromArray(FLOAT, row.z0, ix),
+                    row.indices);
+
+            FloatVector value = FloatVector.fromArray(FLOAT, row.value, ix);
+            value.blend(value.add(pow4(a).mul(grad)), a.compare(VectorOperators.GT, 0)).intoArray(row.value, ix);
+        }
+    }
+
+    // Second sommet le long de l'axe dominant : la branche à trois cas devient deux masques
+    private static void openSimplex2Dominant(int seed, OpenSimplex2Row row) {
+        for (int ix = 0; ix < row.a.length; ix += LANES) {
+            FloatVector ax0 = FloatVector.fromArray(FLOAT, row.ax0, ix);
+            FloatVector ay0 = FloatVector.fromArray(FLOAT, row.ay0, ix);
+            FloatVector az0 = FloatVector.fromArray(FLOAT, row.az0, ix);
+
+            VectorMask<Float> xDominant = ax0.compare(VectorOperators.GE, ay0).and(ax0.compare(VectorOperators.GE, az0));
+            VectorMask<Float> yDominant = xDominant.not()
+                    .and(ay0.compare(VectorOperators.GT, ax0)).and(ay0.compare(VectorOperators.GE, az0));
+            VectorMask<Float> zDominant = xDominant.or(yDominant).not();
+
+            FloatVector dominant = az0.blend(ay0, yDominant).blend(ax0, xDominant);
+            FloatVector b = FloatVector.fromArray(FLOAT, row.a, ix).add(dominant).add(dominant);
+
+            IntVector i = IntVector.fromArray(INT, row.i, ix);
+            IntVector j = IntVector.fromArray(INT, row.j, ix);
+            IntVector k = IntVector.fromArray(INT, row.k, ix);
+            IntVector xNSign = IntVector.fromArray(INT, row.xNSign, ix);
+            IntVector yNSign = IntVector.fromArray(INT, row.yNSign, ix);
+            IntVector zNSign = IntVector.fromArray(INT, row.zNSign, ix);
+            FloatVector x0 = FloatVector.fromArray(FLOAT, row.x0, ix);
+            FloatVector y0 = FloatVector.fromArray(FLOAT, row.y0, ix);
+            FloatVector z0 = FloatVector.fromArray(FLOAT, row.z0, ix);
+
+            IntVector bi = i.blend(i.sub(xNSign.mul(PRIME_X)), xDominant.cast(INT));
+            IntVector bj = j.blend(j.sub(yNSign.mul(PRIME_Y)), yDominant.cast(INT));
+            IntVector bk = k.blend(k.sub(zNSign.mul(PRIME_Z)), zDominant.cast(INT));
+            FloatVector bx = x0.blend(x0.add(toFloat(xNSign)), xDominant);
+            FloatVector by = y0.blend(y0.add(toFloat(yNSign)), yDominant);
+            FloatVector bz = z0.blend(z0.add(toFloat(zNSign)), zDominant);
+
+            VectorMask<Float> inside = b.compare(VectorOperators.GT, 1);
+            b = b.sub(1);
+            FloatVector grad = grad3D(seed, bi, bj, bk, bx, by, bz, row.indices);
+
+            FloatVector value = FloatVector.fromArray(FLOAT, row.value, ix);
+            value.blend(value.add(pow4(b).mul(grad)), inside).intoArray(row.value, ix);
+        }
+    }
+
+    // Passage à la seconde grille cubique, décalée d'un demi-pas
+    private static void openSimplex2Advance(OpenSimplex2Row row) {
+        FloatVector half = FloatVector.broadcast(FLOAT, 0.5f);
+
+        for (int ix = 0; ix < row.a.length; ix += LANES) {
+            FloatVector ax0 = half.sub(FloatVector.fromArray(FLOAT, row.ax0, ix));
+            FloatVector ay0 = half.sub(FloatVector.fromArray(FLOAT, row.ay0, ix));
+            FloatVector az0 = half.sub(FloatVector.fromArray(FLOAT, row.az0, ix));
+
+            IntVector xNSign = IntVector.fromArray(INT, row.xNSign, ix);
+            IntVector yNSign = IntVector.fromArray(INT, row.yNSign, ix);
+            IntVector zNSign = IntVector.fromArray(INT, row.zNSign, ix);
+
+            toFloat(xNSign).mul(ax0).intoArray(row.x0, ix);
+            toFloat(yNSign).mul(ay0).intoArray(row.y0, ix);
+            toFloat(zNSign).mul(az0).intoArray(row.z0, ix);
+
+            FloatVector a = FloatVector.fromArray(FLOAT, row.a, ix);
+            a.add(FloatVector.broadcast(FLOAT, 0.75f).sub(ax0).sub(ay0.add(az0))).intoArray(row.a, ix);
+
+            IntVector.fromArray(INT, row.i, ix).add(xNSign.lanewise(VectorOperators.ASHR, 1).and(PRIME_X)).intoArray(row.i, ix);
+            IntVector.fromArray(INT, row.j, ix).add(yNSign.lanewise(VectorOperators.ASHR, 1).and(PRIME_Y)).intoArray(row.j, ix);
+            IntVector.fromArray(INT, row.k, ix).add(zNSign.lanewise(VectorOperators.ASHR, 1).and(PRIME_Z)).intoArray(row.k, ix);
+
+            xNSign.neg().intoArray(row.xNSign, ix);
+            yNSign.neg().intoArray(row.yNSign, ix);
+            zNSign.neg().intoArray(row.zNSign, ix);
+
+            ax0.intoArray(row.ax0, ix);
+            ay0.intoArray(row.ay0, ix);
+            az0.intoArray(row.az0, ix);
+        }
+    }
+
+    // --- Perlin ---
+
+    // Cellule, position dans la cellule et poids d'interpolation de chaque colonne, une fois par grille
+    private static final class PerlinAxis {
+        final int count;
+        final int[] xPrimed;
+        final float[] xd0, xInterp;
+
+        PerlinAxis(float[] xs) {
+            count = xs.length;
+            xPrimed = new int[count];
+            xd0 = new float[count];
+            xInterp = new float[count];
+
+            for (int ix = 0; ix < count; ix++) {
+                int x0 = fastFloor(xs[ix]);
+                xd0[ix] = xs[ix] - x0;
+                xInterp[ix] = interpQuintic(xd0[ix]);
+                xPrimed[ix] = x0 * PRIME_X;
+            }
+        }
+    }
+
+    // Arête x de la cellule à (yPrimed, yd) : Lerp(GradDot(x0), GradDot(x0 + 1), xInterp)
+    private static void perlinEdge2D(int seed, PerlinAxis axis, int yPrimed, float yd, float[] out, int[] indices) {
+        IntVector y = IntVector.broadcast(INT, yPrimed);
+        FloatVector yds = FloatVector.broadcast(FLOAT, yd);
+
+        for (int ix = 0; ix < axis.count; ix += LANES) {
+            IntVector x0 = IntVector.fromArray(INT, axis.xPrimed, ix);
+            FloatVector xdA = FloatVector.fromArray(FLOAT, axis.xd0, ix);
+
+            FloatVector g0 = grad2D(seed, x0, y, xdA, yds, indices);
+            FloatVector g1 = grad2D(seed, x0.add(PRIME_X), y, xdA.sub(1), yds, indices);
+            lerp(g0, g1, FloatVector.fromArray(FLOAT, axis.xInterp, ix)).intoArray(out, ix);
+        }
+    }
+
+    private static void perlinEdge3D(int seed, PerlinAxis axis, int yPrimed, int zPrimed, float yd, float zd, float[] out, int[] indices) {
+        IntVector y = IntVector.broadcast(INT, yPrimed);
+        IntVector z = IntVector.broadcast(INT, zPrimed);
+        FloatVector yds = FloatVector.broadcast(FLOAT, yd);
+        FloatVector zds = FloatVector.broadcast(FLOAT, zd);
+
+        for (int ix = 0; ix < axis.count; ix += LANES) {
+            IntVector x0 = IntVector.fromArray(INT, axis.xPrimed, ix);
+            FloatVector xdA = FloatVector.fromArray(FLOAT, axis.xd0, ix);
+
+            FloatVector g0 = grad3D(seed, x0, y, z, xdA, yds, zds, indices);
+            FloatVector g1 = grad3D(seed, x0.add(PRIME_X), y, z, xdA.sub(1), yds, zds, indices);
+            lerp(g0, g1, FloatVector.fromArray(FLOAT, axis.xInterp, ix)).intoArray(out, ix);
+        }
+    }
+
+    // Arêtes combinées en y puis en z
+    private static void perlinBlend3D(float[] output, int offset, int size, float[] xf00, float[] xf10, float[] xf01, float[] xf11,
+                                      float yInterp, float zInterp, float amplitude) {
+        FloatVector ys = FloatVector.broadcast(FLOAT, yInterp);
+        FloatVector zs = FloatVector.broadcast(FLOAT, zInterp);
+
+        for (int ix = 0; ix < size; ix += LANES) {
+            FloatVector yf0 = lerp(FloatVector.fromArray(FLOAT, xf00, ix), FloatVector.fromArray(FLOAT, xf10, ix), ys);
+            FloatVector yf1 = lerp(FloatVector.fromArray(FLOAT, xf01, ix), FloatVector.fromArray(FLOAT, xf11, ix), ys);
+            accumulate(output, offset + ix, size - ix, lerp(yf0, yf1, zs).mul(0.964921414852142333984375f), amplitude);
+        }
+    }
+
+    // --- Accumulation dans la grille, seules les lanes dans la grille sont écrites ---
+
+    // output += (n0 + n1 + n2) * scale * amplitude
+    private static void accumulateSum(float[] output, int offset, int size, float[] n0, float[] n1, float[] n2,
+                                      float scale, float amplitude) {
+        for (int ix = 0; ix < size; ix += LANES) {
+            FloatVector noise = FloatVector.fromArray(FLOAT, n0, ix)
+                    .add(FloatVector.fromArray(FLOAT, n1, ix))
+                    .add(FloatVector.fromArray(FLOAT, n2, ix))
+                    .mul(scale);
+            accumulate(output, offset + ix, size - ix, noise, amplitude);
+        }
+    }
+
+    // output += Lerp(a, b, t) * scale * amplitude
+    private static void accumulateLerp(float[] output, int offset, int size, float[] a, float[] b, float t,
+                                       float scale, float amplitude) {
+        FloatVector ts = FloatVector.broadcast(FLOAT, t);
+        for (int ix = 0; ix < size; ix += LANES) {
+            FloatVector noise = lerp(FloatVector.fromArray(FLOAT, a, ix), FloatVector.fromArray(FLOAT, b, ix), ts).mul(scale);
+            accumulate(output, offset + ix, size - ix, noise, amplitude);
+        }
+    }
+
+    // output += value * scale * amplitude
+    private static void accumulateScaled(float[] output, int offset, int size, float[] values, float scale, float amplitude) {
+        for (int ix = 0; ix < size; ix += LANES) {
+            accumulate(output, offset + ix, size - ix, FloatVector.fromArray(FLOAT, values, ix).mul(scale), amplitude);
+        }
+    }
+
+    private static void accumulate(float[] output, int offset, int remaining, FloatVector noise, float amplitude) {
+        if (remaining >= LANES) {
+            FloatVector.fromArray(FLOAT, output, offset).add(noise.mul(amplitude)).intoArray(output, offset);
+        } else {
+            VectorMask<Float> inRange = FLOAT.indexInRange(0, remaining);
+            FloatVector.fromArray(FLOAT, output, offset, inRange).add(noise.mul(amplitude)).intoArray(output, offset, inRange);
+        }
+    }
+
+    // --- Gradients et fonctions communes ---
+
+    // GradCoord 2D : le hash donne l'index du gradient, lu par gather dans une table par composante
+    private static FloatVector grad2D(int seed, IntVector xPrimed, IntVector yPrimed, FloatVector xd, FloatVector yd, int[] indices) {
+        IntVector hash = xPrimed.lanewise(VectorOperators.XOR, yPrimed).lanewise(VectorOperators.XOR, seed).mul(HASH_MULTIPLIER);
+        hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.ASHR, 15)).and(127 << 1)
+                .lanewise(VectorOperators.ASHR, 1).intoArray(indices, 0);
+
+        FloatVector xg = FloatVector.fromArray(FLOAT, GRADIENTS_2D_X, 0, indices, 0);
+        FloatVector yg = FloatVector.fromArray(FLOAT, GRADIENTS_2D_Y, 0, indices, 0);
+        return xd.mul(xg).add(yd.mul(yg));
+    }
+
+    private static FloatVector grad3D(int seed, IntVector xPrimed, IntVector yPrimed, IntVector zPrimed,
+                                      FloatVector xd, FloatVector yd, FloatVector zd, int[] indices) {
+        IntVector hash = xPrimed.lanewise(VectorOperators.XOR, yPrimed).lanewise(VectorOperators.XOR, zPrimed)
+                .lanewise(VectorOperators.XOR, seed).mul(HASH_MULTIPLIER);
+        hash.lanewise(VectorOperators.XOR, hash.lanewise(VectorOperators.ASHR, 15)).and(63 << 2)
+                .lanewise(VectorOperators.ASHR, 2).intoArray(indices, 0);
+
+        FloatVector xg = FloatVector.fromArray(FLOAT, GRADIENTS_3D_X, 0, indices, 0);
+        FloatVector yg = FloatVector.fromArray(FLOAT, GRADIENTS_3D_Y, 0, indices, 0);
+        FloatVector zg = FloatVector.fromArray(FLOAT, GRADIENTS_3D_Z, 0, indices, 0);
+        return xd.mul(xg).add(yd.mul(yg)).add(zd.mul(zg));
+    }
+
+    private static float[] gradientComponent(float[] gradients, int stride, int component) {
+        float[] values = new float[gradients.length / stride];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = gradients[i * stride + component];
+        }
+        return values;
+    }
+
+    // Les lanes au-delà de la grille calculent sur des zéros et ne sont jamais écrites
+    private static float[] pad(float[] values) {
+        return Arrays.copyOf(values, (values.length + LANES - 1) / LANES * LANES);
+    }
+
+    // Lerp : a + t * (b - a)
+    private static FloatVector lerp(FloatVector a, FloatVector b, FloatVector t) {
+        return a.add(t.mul(b.sub(a)));
+    }
+
+    private static float interpQuintic(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static int fastFloor(float f) {
+        return f >= 0 ? (int) f : (int) f - 1;
+    }
+
+    private static FloatVector pow4(FloatVector v) {
+        FloatVector squared = v.mul(v);
+        return squared.mul(squared);
+    }
+
+    // FastFloor : f >= 0 ? (int) f : (int) f - 1
+    private static IntVector fastFloor(FloatVector f) {
+        IntVector truncated = toInt(f);
+        return truncated.blend(truncated.sub(1), f.compare(VectorOperators.GE, 0).not().cast(INT));
+    }
+
+    // FastRound : f >= 0 ? (int) (f + 0.5f) : (int) (f - 0.5f)
+    private static IntVector fastRound(FloatVector f) {
+        return toInt(f.sub(0.5f)).blend(toInt(f.add(0.5f)), f.compare(VectorOperators.GE, 0).cast(INT));
+    }
+
+    private static IntVector toInt(FloatVector f) {
+        return (IntVector) f.convert(VectorOperators.F2I, 0);
+    }
+
+    private static FloatVector toFloat(IntVector i) {
+        return (FloatVector) i.convert(VectorOperators.I2F, 0);
+    }
+}